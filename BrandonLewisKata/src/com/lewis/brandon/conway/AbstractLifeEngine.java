@@ -0,0 +1,139 @@
+package com.lewis.brandon.conway;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base class for {@link LifeEngine} implementations which takes care of board
+ * dimensions and cell index validation.  Subclasses only need to provide storage
+ * for the cells and an algorithm for calculating the next generation.
+ */
+public abstract class AbstractLifeEngine implements LifeEngine {
+
+	private final int boardWidth, boardHeight;
+	/** Generations calculated since the board was created or randomized, as reported by {@link #getSnapshot()} */
+	private long generation;
+
+	/**
+	 * @param boardWidth	the number of cells wide the board is.  A playable board must have a boardWidth of at least 2
+	 * @param boardHeight	the number of cells tall the board is.  A playable board must have a boardHeight of at least 2
+	 *
+	 * @throws IllegalArgumentException	if the board is constructed with fewer than 2 cells wide or fewer than 2 cells tall
+	 */
+	protected AbstractLifeEngine(int boardWidth, int boardHeight) {
+		if(boardWidth < 2) {
+			throw new IllegalArgumentException("A game of Conways Game of Life cannot have a board less than 2 cells wide");
+		} else if(boardHeight < 2) {
+			throw new IllegalArgumentException("A game of Conways Game of Life cannot have a board less than 2 cells tall");
+		}
+		this.boardWidth = boardWidth;
+		this.boardHeight = boardHeight;
+	}
+
+	@Override
+	public int getBoardWidth() { return boardWidth; }
+
+	@Override
+	public int getBoardHeight() { return boardHeight; }
+
+	/**
+	 * Sets the state of a cell whose indexes have already been validated.
+	 */
+	protected abstract void setCell(int xIndex, int yIndex, boolean alive);
+
+	@Override
+	public boolean toggleCell(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "toggle life/death status");
+		boolean alive = !isCellAlive(xIndex, yIndex);
+		setCell(xIndex, yIndex, alive);
+		return alive;
+	}
+
+	@Override
+	public boolean[][] getMatrix() {
+		boolean[][] matrix = new boolean[boardWidth][boardHeight];
+		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+			for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
+				matrix[xIndex][yIndex] = isCellAlive(xIndex, yIndex);
+			}
+		}
+		return matrix;
+	}
+
+	@Override
+	public int getPopulation() {
+		int population = 0;
+		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+			for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
+				if(isCellAlive(xIndex, yIndex)) population++;
+			}
+		}
+		return population;
+	}
+
+	/**
+	 * Copies the whole board.  Subclasses which can hand out storage they will not modify
+	 * again should override this to avoid the copy.
+	 */
+	@Override
+	public BoardSnapshot getSnapshot() { return BoardSnapshot.ofMatrix(generation, getMatrix(), getPopulation()); }
+
+	/**
+	 * Views the region of a whole-board snapshot, which reads no more than the region for
+	 * subclasses whose snapshots are not copies.  Subclasses whose snapshots copy the board
+	 * should override this to read only the region.
+	 */
+	@Override
+	public BoardSnapshot getSnapshot(int xIndex, int yIndex, int width, int height) {
+		checkRegion(xIndex, yIndex, width, height);
+		return getSnapshot().getRegion(xIndex, yIndex, width, height);
+	}
+
+	/**
+	 * Subclasses which rely on the generation count call this once each generation has been calculated.
+	 */
+	protected void countGeneration() { generation++; }
+
+	/**
+	 * Subclasses which rely on the generation count call this when the board is randomized.
+	 */
+	protected void resetGenerationCount() { generation = 0; }
+
+	/**
+	 * @return	the number of generations counted since the board was created or randomized
+	 */
+	protected long getGeneration() { return generation; }
+
+	@Override
+	public void randomizeFirstGeneration() {
+		resetGenerationCount();
+		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+			for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
+				setCell(xIndex, yIndex, ThreadLocalRandom.current().nextBoolean());
+			}
+		}
+	}
+
+	/**
+	 * @param action	description of what was being attempted, used in the exception message
+	 * @throws IllegalArgumentException		when an invalid cell index is provided
+	 */
+	protected void checkCellIndex(int xIndex, int yIndex, String action) {
+		if(xIndex < 0 || xIndex >= boardWidth) {
+			throw new IllegalArgumentException("Cannot " + action + " of a cell that doesn't exist "
+					+ "(received xIndex of " + xIndex + ", expected value to be between 0 and " + (boardWidth - 1) + " inclusive)");
+		} else if(yIndex < 0 || yIndex >= boardHeight) {
+			throw new IllegalArgumentException("Cannot " + action + " of a cell that doesn't exist "
+					+ "(received yIndex of " + yIndex + ", expected value to be between 0 and " + (boardHeight - 1) + " inclusive)");
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException		when the region is empty or not entirely on the board
+	 */
+	protected void checkRegion(int xIndex, int yIndex, int width, int height) {
+		if(width < 1 || height < 1 || xIndex < 0 || xIndex > boardWidth - width || yIndex < 0 || yIndex > boardHeight - height) {
+			throw new IllegalArgumentException("Cannot read a " + width + "x" + height + " region at " + xIndex + ", " + yIndex
+					+ " (expected a non-empty region which fits on the " + boardWidth + "x" + boardHeight + " board)");
+		}
+	}
+}
\ No newline at end of file
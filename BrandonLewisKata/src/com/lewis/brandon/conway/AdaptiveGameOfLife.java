@@ -0,0 +1,245 @@
+package com.lewis.brandon.conway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link LifeEngine} front end which moves the board between the registered engines
+ * as the game evolves.  Boards are grouped into density regimes by the fraction of cells
+ * that are alive; the first time a regime is seen every engine is timed for a few
+ * generations, after which the board is kept on whichever engine stepped it fastest
+ * whenever it is in that regime.  An engine is dropped from timing as soon as one of its
+ * generations takes {@link #SLOW_SAMPLE_FACTOR} times as long as the fastest engine timed
+ * in that regime so far, so a badly suited engine costs one slow generation rather than
+ * {@link #SAMPLE_GENERATIONS} of them.
+ *
+ * Like {@link ConwaysGameOfLife}, every completed generation and edit is published as an
+ * immutable {@link BoardSnapshot}, whichever engine holds the board, so any number of
+ * threads may read the board while one thread calculates generations.  Each engine hands
+ * out its own storage as the snapshot rather than a copy of the board.  Writes wait on a
+ * lock for each other.
+ */
+public class AdaptiveGameOfLife extends AbstractLifeEngine {
+
+	/** Number of generations each engine is timed for in a regime before the fastest one is chosen */
+	static final int SAMPLE_GENERATIONS = 8;
+	/** How many times slower than the fastest average in a regime one generation may be before an engine stops being timed */
+	static final int SLOW_SAMPLE_FACTOR = 2;
+	/** Exclusive upper density bound of every regime except the last, which covers everything above */
+	static final double[] REGIME_DENSITY_LIMITS = { 0.01, 0.05, 0.20 };
+
+	private final List<LifeEngineProvider> providers;
+	private final long[][] sampledNanos;	// [regime][provider]
+	private final int[][] sampleCounts;		// [regime][provider]
+	private final boolean[][] samplingDone;	// [regime][provider]
+	/** Readers only ever look at this, never at {@link #engine}, which may be changed in place */
+	private final AtomicReference<BoardSnapshot> published;
+	/** Held by the thread changing the board; guards everything below */
+	private final ReentrantLock writeLock = new ReentrantLock();
+	private LifeEngine engine;
+	private volatile int engineIndex;
+	/** Set when the engine holds edits which have not been published yet */
+	private volatile boolean unpublishedEdits;
+
+	/**
+	 * Creates a board which chooses between every engine registered with {@link java.util.ServiceLoader}.
+	 *
+	 * @throws IllegalArgumentException	if the board is constructed with fewer than 2 cells wide or fewer than 2 cells tall
+	 */
+	public AdaptiveGameOfLife(int boardWidth, int boardHeight) {
+		this(boardWidth, boardHeight, LifeEngines.getProviders());
+	}
+
+	/**
+	 * @param providers		the engines to choose between; the first one is used until timings are available
+	 * @throws IllegalArgumentException	if the board is too small or no providers are given
+	 */
+	public AdaptiveGameOfLife(int boardWidth, int boardHeight, List<LifeEngineProvider> providers) {
+		super(boardWidth, boardHeight);
+		if(providers.isEmpty()) {
+			throw new IllegalArgumentException("An adaptive game of Conways Game of Life needs at least one engine to choose from");
+		}
+		this.providers = new ArrayList<>(providers);
+		sampledNanos = new long[REGIME_DENSITY_LIMITS.length + 1][providers.size()];
+		sampleCounts = new int[REGIME_DENSITY_LIMITS.length + 1][providers.size()];
+		samplingDone = new boolean[REGIME_DENSITY_LIMITS.length + 1][providers.size()];
+		engine = providers.get(0).create(boardWidth, boardHeight);
+		published = new AtomicReference<>(engine.getSnapshot());
+	}
+
+	/**
+	 * @return	the name of the engine currently holding the board
+	 */
+	public String getEngineName() { return providers.get(engineIndex).getName(); }
+
+	@Override
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "check life/death status");
+		return current().isCellAlive(xIndex, yIndex);
+	}
+
+	@Override
+	public boolean[][] getMatrix() { return current().getMatrix(); }
+
+	@Override
+	public int getPopulation() { return current().getPopulation(); }
+
+	/**
+	 * Edits are published the next time the board is read or stepped, so that loading a board
+	 * one cell at a time doesn't take a snapshot for every cell.
+	 *
+	 * @return	the most recently published generation, which never changes once returned
+	 */
+	@Override
+	public BoardSnapshot getSnapshot() { return current(); }
+
+	@Override
+	public boolean toggleCell(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "toggle life/death status");
+		writeLock.lock();
+		try {
+			boolean alive = engine.toggleCell(xIndex, yIndex);
+			unpublishedEdits = true;
+			return alive;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	protected void setCell(int xIndex, int yIndex, boolean alive) {
+		writeLock.lock();
+		try {
+			if(engine.isCellAlive(xIndex, yIndex) != alive) {
+				engine.toggleCell(xIndex, yIndex);
+				unpublishedEdits = true;
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void randomizeFirstGeneration() {
+		writeLock.lock();
+		try {
+			engine.randomizeFirstGeneration();
+			resetGenerationCount();
+			publish();
+			adapt(getDensityRegime());
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * The time taken to publish the new generation is counted as part of the engine's
+	 * time, since that is part of the cost of stepping the board for the engine's readers.
+	 */
+	@Override
+	public void calculateNextGeneration() {
+		writeLock.lock();
+		try {
+			int regime = getDensityRegime();
+			long start = System.nanoTime();
+			engine.calculateNextGeneration();
+			countGeneration();
+			publish();
+			recordSample(regime, System.nanoTime() - start);
+			adapt(regime);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Publishes any edits which no other thread is in the middle of making, then returns the
+	 * latest snapshot.  This never waits: if another thread holds the write lock, the change
+	 * it is making is not complete yet and the previous snapshot is returned.
+	 */
+	private BoardSnapshot current() {
+		if(unpublishedEdits && writeLock.tryLock()) {
+			try {
+				if(unpublishedEdits) publish();
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		return published.get();
+	}
+
+	/**
+	 * Publishes the engine's own snapshot, which engines hand out without copying the board.
+	 * Must only be called while holding the write lock.
+	 */
+	private void publish() {
+		BoardSnapshot snapshot = engine.getSnapshot();
+		// Engines count generations from when they were created, which may be after a migration
+		published.set(snapshot.getGeneration() == getGeneration() ? snapshot : snapshot.withGeneration(getGeneration()));
+		unpublishedEdits = false;
+	}
+
+	/**
+	 * @return	index into {@link #REGIME_DENSITY_LIMITS} of the board's current density regime
+	 */
+	int getDensityRegime() {
+		double density = (double) engine.getPopulation() / ((long) getBoardWidth() * getBoardHeight());
+		int regime = 0;
+		while(regime < REGIME_DENSITY_LIMITS.length && density >= REGIME_DENSITY_LIMITS[regime]) regime++;
+		return regime;
+	}
+
+	private void recordSample(int regime, long nanos) {
+		int fastest = fastestEngine(regime);
+		sampledNanos[regime][engineIndex] += nanos;
+		sampleCounts[regime][engineIndex]++;
+		if(sampleCounts[regime][engineIndex] >= SAMPLE_GENERATIONS
+				|| (fastest >= 0 && fastest != engineIndex && nanos > SLOW_SAMPLE_FACTOR * averageNanos(regime, fastest))) {
+			samplingDone[regime][engineIndex] = true;
+		}
+	}
+
+	/**
+	 * @param steppedRegime	the regime the board was in before the generation just calculated, or
+	 * 						the current regime if the board has not been stepped
+	 */
+	private void adapt(int steppedRegime) {
+		int preferred = choosePreferredEngine(getDensityRegime(), steppedRegime);
+		if(preferred != engineIndex) migrateTo(preferred);
+	}
+
+	private int choosePreferredEngine(int regime, int steppedRegime) {
+		// Finish timing the current engine unless the board has just left the regime it was being timed in
+		if(regime == steppedRegime && !samplingDone[regime][engineIndex]) return engineIndex;
+		// Otherwise time any engine not yet timed in this regime, starting with the one fastest in the last regime
+		int previousFastest = fastestEngine(steppedRegime);
+		if(previousFastest >= 0 && !samplingDone[regime][previousFastest]) return previousFastest;
+		for(int index = 0; index < providers.size(); index++) {
+			if(!samplingDone[regime][index]) return index;
+		}
+		return fastestEngine(regime);
+	}
+
+	/**
+	 * @return	the engine with the lowest average generation time in the regime, or -1 if none has been timed in it
+	 */
+	private int fastestEngine(int regime) {
+		int fastest = -1;
+		for(int index = 0; index < providers.size(); index++) {
+			if(sampleCounts[regime][index] == 0) continue;
+			if(fastest < 0 || averageNanos(regime, index) < averageNanos(regime, fastest)) fastest = index;
+		}
+		return fastest;
+	}
+
+	private double averageNanos(int regime, int index) {
+		return (double) sampledNanos[regime][index] / sampleCounts[regime][index];
+	}
+
+	private void migrateTo(int index) {
+		engine = providers.get(index).create(engine.getSnapshot());
+		engineIndex = index;
+	}
+}
\ No newline at end of file
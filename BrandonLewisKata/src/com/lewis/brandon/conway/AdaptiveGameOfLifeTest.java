@@ -0,0 +1,122 @@
+package com.lewis.brandon.conway;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveGameOfLifeTest {
+	AdaptiveGameOfLife gameOfLife;
+	private static final int BOARD_WIDTH = 30, BOARD_HEIGHT = 30;
+
+	@Before
+	public void beforeHook() {
+		gameOfLife = new AdaptiveGameOfLife(BOARD_WIDTH, BOARD_HEIGHT,
+				Arrays.asList(new ConwaysGameOfLife.Provider(), new SparseGameOfLife.Provider()));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testAdaptiveGameWithoutEnginesResultsInIllegalArgumentException() {
+		new AdaptiveGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, Arrays.<LifeEngineProvider>asList());
+	}
+
+	@Test
+	public void testEmptyBoardIsInSparsestRegime() {
+		assertEquals(0, gameOfLife.getDensityRegime());
+	}
+
+	@Test
+	public void testFullBoardIsInDensestRegime() {
+		for(int xIndex = 0; xIndex < BOARD_WIDTH; xIndex++) {
+			for(int yIndex = 0; yIndex < BOARD_HEIGHT; yIndex++) {
+				gameOfLife.toggleCell(xIndex, yIndex);
+			}
+		}
+		assertEquals(AdaptiveGameOfLife.REGIME_DENSITY_LIMITS.length, gameOfLife.getDensityRegime());
+	}
+
+	@Test
+	public void testEveryEngineIsTriedWithinARegime() {
+		// A blinker keeps the board in the same regime forever
+		gameOfLife.toggleCell(10, 9);
+		gameOfLife.toggleCell(10, 10);
+		gameOfLife.toggleCell(10, 11);
+		Set<String> enginesUsed = new HashSet<>();
+		for(int generation = 0; generation < AdaptiveGameOfLife.SAMPLE_GENERATIONS * 3; generation++) {
+			enginesUsed.add(gameOfLife.getEngineName());
+			gameOfLife.calculateNextGeneration();
+		}
+		assertEquals(new HashSet<>(Arrays.asList("dense", "sparse")), enginesUsed);
+	}
+
+	@Test
+	public void testSlowEngineIsDroppedAfterOneSlowGeneration() {
+		final AtomicInteger slowGenerations = new AtomicInteger();
+		LifeEngineProvider slowProvider = new LifeEngineProvider() {
+			@Override
+			public String getName() { return "slow"; }
+
+			@Override
+			public LifeEngine create(int boardWidth, int boardHeight) {
+				return new SparseGameOfLife(boardWidth, boardHeight) {
+					@Override
+					public void calculateNextGeneration() {
+						slowGenerations.incrementAndGet();
+						try {
+							Thread.sleep(20);
+						} catch(InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						super.calculateNextGeneration();
+					}
+				};
+			}
+		};
+		gameOfLife = new AdaptiveGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, Arrays.asList(new ConwaysGameOfLife.Provider(), slowProvider));
+		gameOfLife.toggleCell(10, 9);
+		gameOfLife.toggleCell(10, 10);
+		gameOfLife.toggleCell(10, 11);
+		for(int generation = 0; generation < AdaptiveGameOfLife.SAMPLE_GENERATIONS * 3; generation++) {
+			gameOfLife.calculateNextGeneration();
+		}
+		assertEquals(1, slowGenerations.get());
+		assertEquals("dense", gameOfLife.getEngineName());
+		assertEquals(3, gameOfLife.getPopulation());
+	}
+
+	@Test
+	public void testMigrationPreservesBoard() {
+		gameOfLife.toggleCell(10, 9);
+		gameOfLife.toggleCell(10, 10);
+		gameOfLife.toggleCell(10, 11);
+		for(int generation = 0; generation < AdaptiveGameOfLife.SAMPLE_GENERATIONS * 3; generation++) {
+			gameOfLife.calculateNextGeneration();
+		}
+		// An even number of generations leaves the blinker vertical
+		assertEquals(3, gameOfLife.getPopulation());
+		assertTrue(gameOfLife.isCellAlive(10, 9));
+		assertTrue(gameOfLife.isCellAlive(10, 10));
+		assertTrue(gameOfLife.isCellAlive(10, 11));
+	}
+
+	@Test
+	public void testLoneGliderOnLargeBoardSettlesOnSparseEngine() {
+		// Every registered engine has to pay for publishing a snapshot each generation, which must not swamp the sparse engine's advantage
+		gameOfLife = new AdaptiveGameOfLife(1024, 1024);
+		gameOfLife.toggleCell(1, 0);
+		gameOfLife.toggleCell(2, 1);
+		gameOfLife.toggleCell(0, 2);
+		gameOfLife.toggleCell(1, 2);
+		gameOfLife.toggleCell(2, 2);
+		for(int generation = 0; generation < AdaptiveGameOfLife.SAMPLE_GENERATIONS * (LifeEngines.getProviders().size() + 1); generation++) {
+			gameOfLife.calculateNextGeneration();
+		}
+		assertEquals("sparse", gameOfLife.getEngineName());
+		assertEquals(5, gameOfLife.getPopulation());
+	}
+}
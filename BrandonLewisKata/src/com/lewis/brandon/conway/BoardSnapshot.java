@@ -0,0 +1,155 @@
+package com.lewis.brandon.conway;
+
+/**
+ * An immutable view of a {@link LifeEngine} board as of one completed generation.
+ * Snapshots are safe to read from any thread without synchronization.
+ *
+ * Each engine decides how its snapshots read their cells, so that an engine can hand out
+ * storage it has finished with instead of copying the whole board every generation.
+ */
+public abstract class BoardSnapshot {
+
+	private final long generation;
+	private final int boardWidth, boardHeight;
+
+	/**
+	 * The cells read by {@link #cellAlive(int, int)} must never change once the snapshot is constructed.
+	 */
+	protected BoardSnapshot(long generation, int boardWidth, int boardHeight) {
+		this.generation = generation;
+		this.boardWidth = boardWidth;
+		this.boardHeight = boardHeight;
+	}
+
+	/**
+	 * @return	the number of generations calculated since the board was created or randomized.
+	 * 			Toggling cells publishes a new snapshot with the same generation number.
+	 */
+	public long getGeneration() { return generation; }
+
+	/**
+	 * @return	int representing the width of the game board
+	 */
+	public int getBoardWidth() { return boardWidth; }
+
+	/**
+	 * @return	int representing the height of the game board
+	 */
+	public int getBoardHeight() { return boardHeight; }
+
+	/**
+	 * @return	the number of living cells on the board
+	 */
+	public abstract int getPopulation();
+
+	/**
+	 * @param xIndex	index of the column to check, where 0 represents the first cell
+	 * @param yIndex	index of the row to check, where 0 represents the first cell
+	 * @throws IndexOutOfBoundsException	when an invalid cell index is provided
+	 * @return			true if the cell is living in this generation
+	 */
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		if(xIndex < 0 || xIndex >= boardWidth || yIndex < 0 || yIndex >= boardHeight) {
+			throw new IndexOutOfBoundsException("Cell " + xIndex + ", " + yIndex + " is not on a " + boardWidth + "x" + boardHeight + " board");
+		}
+		return cellAlive(xIndex, yIndex);
+	}
+
+	/**
+	 * Reads a cell whose indexes have already been validated.
+	 */
+	protected abstract boolean cellAlive(int xIndex, int yIndex);
+
+	/**
+	 * @return	a copy of the 2D array, indexed [xIndex][yIndex], representing this generation's board of living/dead cells
+	 */
+	public boolean[][] getMatrix() {
+		boolean[][] matrix = new boolean[boardWidth][boardHeight];
+		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+			for(int yIndex = 0; yIndex < boardHeight; yIndex++) matrix[xIndex][yIndex] = cellAlive(xIndex, yIndex);
+		}
+		return matrix;
+	}
+
+	/**
+	 * @param xIndex	index of the region's first column, which becomes column 0 of the view
+	 * @param yIndex	index of the region's first row, which becomes row 0 of the view
+	 * @param width		the number of columns in the region
+	 * @param height	the number of rows in the region
+	 * @throws IndexOutOfBoundsException	when the region is empty or not entirely on the board
+	 * @return			a view of part of this board, whose population is counted each time it is asked for
+	 */
+	public BoardSnapshot getRegion(int xIndex, int yIndex, int width, int height) {
+		if(width < 1 || height < 1 || xIndex < 0 || xIndex > boardWidth - width || yIndex < 0 || yIndex > boardHeight - height) {
+			throw new IndexOutOfBoundsException("A " + width + "x" + height + " region at " + xIndex + ", " + yIndex
+					+ " is not on a " + boardWidth + "x" + boardHeight + " board");
+		}
+		BoardSnapshot cells = this;
+		return new BoardSnapshot(generation, width, height) {
+			@Override
+			public int getPopulation() {
+				int population = 0;
+				for(int column = 0; column < width; column++) {
+					for(int row = 0; row < height; row++) {
+						if(cells.cellAlive(xIndex + column, yIndex + row)) population++;
+					}
+				}
+				return population;
+			}
+
+			@Override
+			protected boolean cellAlive(int column, int row) { return cells.cellAlive(xIndex + column, yIndex + row); }
+		};
+	}
+
+	/**
+	 * @return	a view of the same cells numbered as another generation
+	 */
+	BoardSnapshot withGeneration(long generation) {
+		BoardSnapshot cells = this;
+		return new BoardSnapshot(generation, boardWidth, boardHeight) {
+			@Override
+			public int getPopulation() { return cells.getPopulation(); }
+
+			@Override
+			protected boolean cellAlive(int xIndex, int yIndex) { return cells.cellAlive(xIndex, yIndex); }
+
+			@Override
+			public boolean[][] getMatrix() { return cells.getMatrix(); }
+		};
+	}
+
+	/**
+	 * Takes ownership of the cell array, which must not be modified afterwards.  Columns
+	 * may be shared with other snapshots, since none of them are ever modified either.
+	 *
+	 * @param cells		the board's cells, indexed [xIndex][yIndex]
+	 */
+	public static BoardSnapshot ofMatrix(long generation, boolean[][] cells, int population) {
+		return new MatrixSnapshot(generation, cells, population);
+	}
+
+	private static final class MatrixSnapshot extends BoardSnapshot {
+		private final boolean[][] cells;
+		private final int population;
+
+		MatrixSnapshot(long generation, boolean[][] cells, int population) {
+			super(generation, cells.length, cells[0].length);
+			this.cells = cells;
+			this.population = population;
+		}
+
+		@Override
+		public int getPopulation() { return population; }
+
+		@Override
+		protected boolean cellAlive(int xIndex, int yIndex) { return cells[xIndex][yIndex]; }
+
+		@Override
+		public boolean[][] getMatrix() {
+			boolean[][] matrix = new boolean[cells.length][];
+			for(int xIndex = 0; xIndex < cells.length; xIndex++) matrix[xIndex] = cells[xIndex].clone();
+			return matrix;
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package com.lewis.brandon.conway;
 
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * An implementation of Conway's well-known Game of Life.  The
@@ -13,19 +18,52 @@ import java.util.concurrent.ThreadLocalRandom;
  * 	<li>A cell's neighbors are those cells which are horizontally, vertically, or diagonally adjacent.</li>
  * </ul>
  * 
+ * This is the dense engine: every cell is stored in a 2D array and every cell is
+ * visited each generation, so its cost depends only on the size of the board.
+ * 
+ * Any number of threads may read the board while another calculates generations; see
+ * {@link #getSnapshot()}.
+ * 
  * @author	Brandon Lewis
  * @since	April 19, 2017
  */
-public class ConwaysGameOfLife {
+public class ConwaysGameOfLife extends AbstractLifeEngine {
 	
+	/**
+	 * Every completed generation is published here as an immutable snapshot, so readers on any
+	 * thread always see a whole generation and never wait on the thread calculating the next one.
+	 */
+	private final AtomicReference<BoardSnapshot> published;
+	/** Cell edits waiting to be applied by whichever thread next holds the write lock */
+	private final Queue<CellEdit> pendingEdits = new ConcurrentLinkedQueue<>();
+	/** Held while a thread is changing the board; only one thread publishes at a time */
+	private final ReentrantLock writeLock = new ReentrantLock();
+
+	// The writer's copy of the board, only touched while holding the write lock.  Its columns are
+	// shared with the published snapshot until an edit copies them, after which the writer owns them
+	// and further edits change them in place until the next snapshot is published.
 	private boolean[][] gameMatrix;
+	private final boolean[] ownedColumns;
+	private int population;
+	private long generation;
+	/** Set when gameMatrix holds edits which have not been published yet */
+	private volatile boolean unpublishedEdits;
+
 	/**
-	 * @return	a clone of the 2D array representing the game's board of living/dead cells
+	 * @return	a copy of the 2D array representing the game's board of living/dead cells
 	 */
-	public boolean[][] getMatrix() { return gameMatrix.clone(); }
-	
+	@Override
+	public boolean[][] getMatrix() { return current().getMatrix(); }
+
+	/**
+	 * Edits are published the next time the board is read or stepped, so that loading a board
+	 * one cell at a time doesn't copy the board for every cell.
+	 * 
+	 * @return	the most recently published generation, which never changes once returned
+	 */
+	@Override
+	public BoardSnapshot getSnapshot() { return current(); }
 
-	private int boardWidth, boardHeight;
 	/**
 	 * @param boardWidth	the number of cells wide the board is.  A playable board must have a boardWidth of at least 2
 	 * @param boardHeight	the number of cells tall the board is.  A playable board must have a boardHeight of at least 2
@@ -34,57 +72,91 @@ public class ConwaysGameOfLife {
 	 * @throws NullPointerException		if a null Integer object is passed as an argument for either parameter
 	 */
 	public ConwaysGameOfLife(int boardWidth, int boardHeight) {
-		if(boardWidth < 2) {
-			throw new IllegalArgumentException("A game of Conways Game of Life cannot have a board less than 2 cells wide");
-		} else if(boardHeight < 2) {
-			throw new IllegalArgumentException("A game of Conways Game of Life cannot have a board less than 2 cells tall");
-		}
+		super(boardWidth, boardHeight);
 		gameMatrix = new boolean[boardWidth][boardHeight];
-		this.boardWidth = boardWidth;
-		this.boardHeight = boardHeight;
+		ownedColumns = new boolean[boardWidth];
+		published = new AtomicReference<>(BoardSnapshot.ofMatrix(0, gameMatrix.clone(), 0));
 	}
 
 	/**
-	 * Convenience method to obtain the width of board.
-	 * 
-	 * @return	int representing the width of the game board
+	 * Loads the whole board in one go, rather than queueing an edit for every living cell.
 	 */
-	public int getBoardWidth() { return boardWidth; }
+	private ConwaysGameOfLife(BoardSnapshot snapshot) {
+		super(snapshot.getBoardWidth(), snapshot.getBoardHeight());
+		gameMatrix = snapshot.getMatrix();
+		ownedColumns = new boolean[gameMatrix.length];
+		population = snapshot.getPopulation();
+		published = new AtomicReference<>(BoardSnapshot.ofMatrix(0, gameMatrix.clone(), population));
+	}
+
+	@Override
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "check life/death status");
+		return current().isCellAlive(xIndex, yIndex);
+	}
+
+	@Override
+	public int getPopulation() { return current().getPopulation(); }
 
-	/**
-	 * Convenience method to obtain the height of board.
-	 * 
-	 * @return	int representing the height of the game board
-	 */
-	public int getBoardHeight() { return boardHeight; }
-	
 	/**
 	 * Toggles a particular cell's current state, either from living to dead or dead to living.
+	 * The edit is queued and applied between generations: if another thread is calculating a
+	 * generation at the time, this waits until that generation is published and then applies it.
 	 * 
 	 * @param xIndex	index of the column to toggle, where 0 represents the first cell
 	 * @param yIndex	index of the row to toggle, where 0 represents the first cell
 	 * @throws IllegalArgumentException		when an invalid cell index is provided
 	 * @return			the new state of the toggled cell
 	 */
+	@Override
 	public boolean toggleCell(int xIndex, int yIndex) {
-		if(xIndex < 0 || xIndex >= boardWidth) {
-			throw new IllegalArgumentException("Cannot toggle life/death status of a cell that doesn't exist "
-					+ "(received xIndex of " + xIndex + ", expected value to be between 0 and " + (boardWidth - 1) + " inclusive)");
-		} else if(yIndex < 0 || yIndex >= boardHeight) {
-			throw new IllegalArgumentException("Cannot toggle life/death status of a cell that doesn't exist "
-					+ "(received yIndex of " + yIndex + ", expected value to be between 0 and " + (boardHeight - 1) + " inclusive)");
+		checkCellIndex(xIndex, yIndex, "toggle life/death status");
+		CellEdit edit = new CellEdit(xIndex, yIndex, true, false);
+		pendingEdits.add(edit);
+		writeLock.lock();
+		try {
+			applyEdits();	// Applies this edit unless another thread already has
+		} finally {
+			writeLock.unlock();
+		}
+		return edit.alive;
+	}
+
+	/**
+	 * Queues the edit without waiting; it is applied straight away unless another thread is
+	 * changing the board, in which case the next thread to take the write lock applies it.
+	 */
+	@Override
+	protected void setCell(int xIndex, int yIndex, boolean alive) {
+		pendingEdits.add(new CellEdit(xIndex, yIndex, false, alive));
+		if(writeLock.tryLock()) {
+			try {
+				applyEdits();
+			} finally {
+				writeLock.unlock();
+			}
 		}
-		return gameMatrix[xIndex][yIndex] = !gameMatrix[xIndex][yIndex];
 	}
 	
 	/**
 	 * Randomly generates the state of each cell of the current board configuration.
 	 */
+	@Override
 	public void randomizeFirstGeneration() {
-		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
-			for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
-				gameMatrix[xIndex][yIndex] = ThreadLocalRandom.current().nextBoolean();
+		int boardWidth = getBoardWidth(), boardHeight = getBoardHeight();
+		writeLock.lock();
+		try {
+			boolean[][] newGameMatrix = new boolean[boardWidth][boardHeight];
+			int newPopulation = 0;
+			for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+				for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
+					if(newGameMatrix[xIndex][yIndex] = ThreadLocalRandom.current().nextBoolean()) newPopulation++;
+				}
 			}
+			publishGeneration(0, newGameMatrix, newPopulation);
+			applyEdits();	// Edits queued while the board was being randomized
+		} finally {
+			writeLock.unlock();
 		}
 	}
 	
@@ -98,21 +170,85 @@ public class ConwaysGameOfLife {
 	 * 	<li>A cell's neighbors are those cells which are horizontally, vertically, or diagonally adjacent.</li>
 	 * </ul>
 	 */
+	@Override
 	public void calculateNextGeneration() {
-		boolean[][] newGameMatrix = new boolean[boardWidth][boardHeight];
-		for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
-			for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
-				if(gameMatrix[xIndex][yIndex]) {	// Cell is Living
-					newGameMatrix[xIndex][yIndex] = deathCheck(xIndex, yIndex);
-				} else {							// Cell is Dead
-					newGameMatrix[xIndex][yIndex] = birthCheck(xIndex, yIndex);
+		int boardWidth = getBoardWidth(), boardHeight = getBoardHeight();
+		writeLock.lock();
+		try {
+			applyEdits();
+			boolean[][] newGameMatrix = new boolean[boardWidth][boardHeight];
+			int newPopulation = 0;
+			for(int xIndex = 0; xIndex < boardWidth; xIndex++) {
+				for(int yIndex = 0; yIndex < boardHeight; yIndex++) {
+					if(gameMatrix[xIndex][yIndex]) {	// Cell is Living
+						newGameMatrix[xIndex][yIndex] = deathCheck(gameMatrix, xIndex, yIndex);
+					} else {							// Cell is Dead
+						newGameMatrix[xIndex][yIndex] = birthCheck(gameMatrix, xIndex, yIndex);
+					}
+					if(newGameMatrix[xIndex][yIndex]) newPopulation++;
 				}
 			}
+			publishGeneration(generation + 1, newGameMatrix, newPopulation);
+		} finally {
+			writeLock.unlock();
 		}
+	}
+
+	/**
+	 * Publishes any edits which no other thread is in the middle of making, then returns the
+	 * latest snapshot.  This never waits: if another thread holds the write lock, the edits it
+	 * is making are not complete yet and the previous snapshot is returned.
+	 */
+	private BoardSnapshot current() {
+		if((unpublishedEdits || !pendingEdits.isEmpty()) && writeLock.tryLock()) {
+			try {
+				applyEdits();
+				if(unpublishedEdits) publishGeneration(generation, gameMatrix, population);
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		return published.get();
+	}
+
+	/**
+	 * Publishes a new board and makes a copy of its column array for the writer, whose columns are
+	 * all shared with the snapshot.  Must only be called while holding the write lock.
+	 */
+	private void publishGeneration(long newGeneration, boolean[][] newGameMatrix, int newPopulation) {
+		published.set(BoardSnapshot.ofMatrix(newGeneration, newGameMatrix, newPopulation));
 		gameMatrix = newGameMatrix.clone();
+		Arrays.fill(ownedColumns, false);
+		population = newPopulation;
+		generation = newGeneration;
+		unpublishedEdits = false;
+	}
+
+	/**
+	 * Applies every queued edit to the writer's copy of the board.  A column shared with the
+	 * published snapshot is copied the first time it is edited; after that, edits change it in
+	 * place.  Must only be called while holding the write lock.
+	 */
+	private void applyEdits() {
+		CellEdit edit;
+		while((edit = pendingEdits.poll()) != null) {
+			boolean[] column = gameMatrix[edit.xIndex];
+			boolean alive = edit.toggle ? !column[edit.yIndex] : edit.alive;
+			if(column[edit.yIndex] != alive) {
+				if(!ownedColumns[edit.xIndex]) {
+					column = gameMatrix[edit.xIndex] = column.clone();
+					ownedColumns[edit.xIndex] = true;
+				}
+				column[edit.yIndex] = alive;
+				population += alive ? 1 : -1;
+				unpublishedEdits = true;
+			}
+			edit.alive = alive;
+		}
 	}
 	
-	private int getNeighborCount(int xIndex, int yIndex) {
+	private int getNeighborCount(boolean[][] gameMatrix, int xIndex, int yIndex) {
+		int boardWidth = getBoardWidth(), boardHeight = getBoardHeight();
 		int neighbors = 0;
 		for(int targetX = xIndex - 1; targetX <= xIndex + 1; targetX++) {
 			for(int targetY = yIndex - 1; targetY <= yIndex + 1; targetY++) {
@@ -126,14 +262,46 @@ public class ConwaysGameOfLife {
 		return neighbors;
 	}
 	
-	private boolean deathCheck(int xIndex, int yIndex) {
-		int neighbors = getNeighborCount(xIndex, yIndex);
+	private boolean deathCheck(boolean[][] gameMatrix, int xIndex, int yIndex) {
+		int neighbors = getNeighborCount(gameMatrix, xIndex, yIndex);
 		if(neighbors < 2 || neighbors > 3) return false;
 		return true;
 	}
 	
-	private boolean birthCheck(int xIndex, int yIndex) {
-		if(getNeighborCount(xIndex, yIndex) == 3) return true;
+	private boolean birthCheck(boolean[][] gameMatrix, int xIndex, int yIndex) {
+		if(getNeighborCount(gameMatrix, xIndex, yIndex) == 3) return true;
 		return false;
 	}
+
+	/**
+	 * Registers {@link ConwaysGameOfLife} with {@link java.util.ServiceLoader} under the name "dense".
+	 */
+	public static class Provider implements LifeEngineProvider {
+		@Override
+		public String getName() { return "dense"; }
+
+		@Override
+		public LifeEngine create(int boardWidth, int boardHeight) { return new ConwaysGameOfLife(boardWidth, boardHeight); }
+
+		@Override
+		public LifeEngine create(BoardSnapshot snapshot) { return new ConwaysGameOfLife(snapshot); }
+	}
+
+	/**
+	 * A queued change to one cell, either toggling it or setting it to a given state.  Once
+	 * applied, alive holds the state the edit left the cell in; it is written and read while
+	 * holding the write lock.
+	 */
+	private static final class CellEdit {
+		final int xIndex, yIndex;
+		final boolean toggle;
+		boolean alive;
+
+		CellEdit(int xIndex, int yIndex, boolean toggle, boolean alive) {
+			this.xIndex = xIndex;
+			this.yIndex = yIndex;
+			this.toggle = toggle;
+			this.alive = alive;
+		}
+	}
 }
\ No newline at end of file
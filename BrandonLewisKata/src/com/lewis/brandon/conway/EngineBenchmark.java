@@ -0,0 +1,63 @@
+package com.lewis.brandon.conway;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command line benchmark which steps the same dense random board with several engines
+ * and reports the average time per generation.  The engines are checked against each
+ * other afterwards so a fast but wrong engine can't go unnoticed.
+ *
+ * Usage: <code>java com.lewis.brandon.conway.EngineBenchmark [boardSize] [generations] [engine...]</code>
+ * which defaults to a 1024x1024 board, 200 generations, and the "dense" and "lookup-table" engines.
+ */
+public class EngineBenchmark {
+
+	private static final int WARMUP_GENERATIONS = 50;
+	private static final long SEED = 20170419L;
+
+	public static void main(String[] args) {
+		int boardSize = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+		int generations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		List<String> engineNames = args.length > 2 ? Arrays.asList(args).subList(2, args.length) : Arrays.asList("dense", "lookup-table");
+
+		boolean[][] reference = null;
+		String referenceName = null;
+		for(String engineName : engineNames) {
+			// Warm up on a separate board so the timed board starts from the same generation for every engine
+			LifeEngine warmup = randomBoard(engineName, boardSize);
+			for(int generation = 0; generation < WARMUP_GENERATIONS; generation++) warmup.calculateNextGeneration();
+
+			LifeEngine gameOfLife = randomBoard(engineName, boardSize);
+			long start = System.nanoTime();
+			for(int generation = 0; generation < generations; generation++) gameOfLife.calculateNextGeneration();
+			long elapsed = System.nanoTime() - start;
+
+			System.out.printf("%-14s %dx%d  %8.3f ms/generation  (population %d after %d generations)%n",
+					engineName, boardSize, boardSize, elapsed / 1e6 / generations, gameOfLife.getPopulation(), generations);
+
+			boolean[][] matrix = gameOfLife.getMatrix();
+			if(reference == null) {
+				reference = matrix;
+				referenceName = engineName;
+			} else if(!Arrays.deepEquals(reference, matrix)) {
+				throw new IllegalStateException("Engine \"" + engineName + "\" disagrees with engine \"" + referenceName + "\"");
+			}
+		}
+	}
+
+	/**
+	 * @return	a board where each cell is alive with 50% probability, identical for every engine
+	 */
+	private static LifeEngine randomBoard(String engineName, int boardSize) {
+		LifeEngine gameOfLife = LifeEngines.create(engineName, boardSize, boardSize);
+		Random random = new Random(SEED);
+		for(int xIndex = 0; xIndex < boardSize; xIndex++) {
+			for(int yIndex = 0; yIndex < boardSize; yIndex++) {
+				if(random.nextBoolean()) gameOfLife.toggleCell(xIndex, yIndex);
+			}
+		}
+		return gameOfLife;
+	}
+}
\ No newline at end of file
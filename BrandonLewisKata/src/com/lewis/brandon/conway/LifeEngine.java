@@ -0,0 +1,80 @@
+package com.lewis.brandon.conway;
+
+/**
+ * A board of living/dead cells together with the algorithm that steps it from one
+ * generation to the next.  Every engine follows the same rules (see {@link ConwaysGameOfLife})
+ * and the same board semantics: cells outside of the board are always considered dead.
+ *
+ * Engines are discovered at runtime through {@link LifeEngineProvider}, so callers should
+ * depend on this interface rather than on a particular implementation.
+ */
+public interface LifeEngine {
+
+	/**
+	 * @return	int representing the width of the game board
+	 */
+	int getBoardWidth();
+
+	/**
+	 * @return	int representing the height of the game board
+	 */
+	int getBoardHeight();
+
+	/**
+	 * @param xIndex	index of the column to check, where 0 represents the first cell
+	 * @param yIndex	index of the row to check, where 0 represents the first cell
+	 * @throws IllegalArgumentException		when an invalid cell index is provided
+	 * @return			true if the cell is currently living
+	 */
+	boolean isCellAlive(int xIndex, int yIndex);
+
+	/**
+	 * @return	a 2D array, indexed [xIndex][yIndex], representing the game's board of living/dead cells
+	 */
+	boolean[][] getMatrix();
+
+	/**
+	 * @return	the number of living cells on the board
+	 */
+	int getPopulation();
+
+	/**
+	 * Engines which may be read while another thread calculates generations return their
+	 * most recently published snapshot without waiting.  Other engines copy their current
+	 * cells, so like their other methods this must not be called while the board is changing.
+	 *
+	 * @return	a copy of the board as of the most recently completed generation or edit, which never changes once returned
+	 */
+	BoardSnapshot getSnapshot();
+
+	/**
+	 * Reads only part of the board, for callers which only ever look at part of it.  Cell
+	 * (xIndex, yIndex) of the board is cell (0, 0) of the returned snapshot.
+	 *
+	 * @param width		the number of columns to read
+	 * @param height	the number of rows to read
+	 * @throws IllegalArgumentException		when the region is empty or not entirely on the board
+	 * @return	a copy of the region as of the most recently completed generation or edit, which never changes once returned
+	 */
+	BoardSnapshot getSnapshot(int xIndex, int yIndex, int width, int height);
+
+	/**
+	 * Toggles a particular cell's current state, either from living to dead or dead to living.
+	 *
+	 * @param xIndex	index of the column to toggle, where 0 represents the first cell
+	 * @param yIndex	index of the row to toggle, where 0 represents the first cell
+	 * @throws IllegalArgumentException		when an invalid cell index is provided
+	 * @return			the new state of the toggled cell
+	 */
+	boolean toggleCell(int xIndex, int yIndex);
+
+	/**
+	 * Randomly generates the state of each cell of the current board configuration.
+	 */
+	void randomizeFirstGeneration();
+
+	/**
+	 * Calculates the next generation of the current board configuration.
+	 */
+	void calculateNextGeneration();
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.lewis.brandon.conway;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Runs {@link LifeGameTest}, plus checks which compare engines with each other, against
+ * every engine registered with {@link java.util.ServiceLoader} as well as the
+ * {@link AdaptiveGameOfLife} front end.
+ */
+@RunWith(Parameterized.class)
+public class LifeEngineConformanceTest extends LifeGameTest {
+	@Parameter(0)
+	public String engineName;
+	@Parameter(1)
+	public LifeEngineProvider provider;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> engines() {
+		List<Object[]> engines = new ArrayList<>();
+		for(LifeEngineProvider provider : LifeEngines.getProviders()) {
+			engines.add(new Object[] { provider.getName(), provider });
+		}
+		engines.add(new Object[] { "adaptive", new LifeEngineProvider() {
+			@Override
+			public String getName() { return "adaptive"; }
+
+			@Override
+			public LifeEngine create(int boardWidth, int boardHeight) { return new AdaptiveGameOfLife(boardWidth, boardHeight); }
+		} });
+		return engines;
+	}
+
+	@Override
+	protected LifeEngine createGameOfLife(int boardWidth, int boardHeight) {
+		return provider.create(boardWidth, boardHeight);
+	}
+
+	// ####################################################
+	//		ENGINE CONFORMANCE TESTS
+	// ####################################################
+	@Test
+	public void testIsCellAliveMatchesMatrix() {
+		gameOfLife.toggleCell(3, 4);
+		assertTrue(gameOfLife.isCellAlive(3, 4));
+		assertFalse(gameOfLife.isCellAlive(4, 3));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testCheckingAnInvalidCellResultsInIllegalArgumentException() {
+		gameOfLife.isCellAlive(gameOfLife.getBoardWidth(), 0);
+	}
+
+	@Test
+	public void testPopulationCountsLivingCells() {
+		gameOfLife.toggleCell(1, 1);
+		gameOfLife.toggleCell(2, 1);
+		gameOfLife.toggleCell(3, 1);
+		gameOfLife.toggleCell(3, 1);
+		assertEquals(2, gameOfLife.getPopulation());
+	}
+
+	@Test
+	public void testManyGenerationsMatchDenseEngine() {
+		assertGenerationsMatchDenseEngine(40, 30, 200);
+	}
+
+	@Test
+	public void testManyGenerationsMatchDenseEngineOnWideOddSizedBoard() {
+		assertGenerationsMatchDenseEngine(131, 67, 100);
+	}
+
+	private void assertGenerationsMatchDenseEngine(int boardWidth, int boardHeight, int generations) {
+		LifeEngine reference = new ConwaysGameOfLife(boardWidth, boardHeight);
+		gameOfLife = createGameOfLife(boardWidth, boardHeight);
+		gameOfLife.randomizeFirstGeneration();
+		boolean[][] initial = gameOfLife.getMatrix();
+		for(int xIndex = 0; xIndex < initial.length; xIndex++) {
+			for(int yIndex = 0; yIndex < initial[xIndex].length; yIndex++) {
+				if(initial[xIndex][yIndex]) reference.toggleCell(xIndex, yIndex);
+			}
+		}
+		for(int generation = 0; generation < generations; generation++) {
+			gameOfLife.calculateNextGeneration();
+			reference.calculateNextGeneration();
+			assertEquals(reference.getPopulation(), gameOfLife.getPopulation());
+		}
+		assertTrue(Arrays.deepEquals(reference.getMatrix(), gameOfLife.getMatrix()));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.lewis.brandon.conway;
+
+/**
+ * Service provider interface used to discover {@link LifeEngine} implementations
+ * through {@link java.util.ServiceLoader}.  Providers are registered in
+ * <code>META-INF/services/com.lewis.brandon.conway.LifeEngineProvider</code> and
+ * must have a public no-argument constructor.
+ */
+public interface LifeEngineProvider {
+
+	/**
+	 * @return	a short, unique name for the engine (e.g. "dense")
+	 */
+	String getName();
+
+	/**
+	 * @param boardWidth	the number of cells wide the board is
+	 * @param boardHeight	the number of cells tall the board is
+	 * @throws IllegalArgumentException	if the board is constructed with fewer than 2 cells wide or fewer than 2 cells tall
+	 * @return				a new engine whose cells are all dead
+	 */
+	LifeEngine create(int boardWidth, int boardHeight);
+
+	/**
+	 * Creates an engine holding the cells of an existing board, e.g. to move a board from one
+	 * engine to another.  Providers whose engines can be loaded in bulk should override this;
+	 * by default each living cell is toggled on one at a time.
+	 *
+	 * @param snapshot	the board to copy, whose generation number is not carried over
+	 * @return			a new engine whose cells are alive exactly where they are in the snapshot
+	 */
+	default LifeEngine create(BoardSnapshot snapshot) {
+		LifeEngine engine = create(snapshot.getBoardWidth(), snapshot.getBoardHeight());
+		boolean[][] matrix = snapshot.getMatrix();
+		for(int xIndex = 0; xIndex < matrix.length; xIndex++) {
+			for(int yIndex = 0; yIndex < matrix[xIndex].length; yIndex++) {
+				if(matrix[xIndex][yIndex]) engine.toggleCell(xIndex, yIndex);
+			}
+		}
+		return engine;
+	}
+}
\ No newline at end of file
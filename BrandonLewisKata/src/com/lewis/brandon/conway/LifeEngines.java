@@ -0,0 +1,48 @@
+package com.lewis.brandon.conway;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Static helpers for looking up the {@link LifeEngine} implementations available
+ * on the classpath.
+ */
+public final class LifeEngines {
+
+	private LifeEngines() {}
+
+	/**
+	 * @return	every {@link LifeEngineProvider} registered with {@link ServiceLoader}, in discovery order
+	 */
+	public static List<LifeEngineProvider> getProviders() {
+		List<LifeEngineProvider> providers = new ArrayList<>();
+		for(LifeEngineProvider provider : ServiceLoader.load(LifeEngineProvider.class)) {
+			providers.add(provider);
+		}
+		return Collections.unmodifiableList(providers);
+	}
+
+	/**
+	 * @param name	the name of the engine, as reported by {@link LifeEngineProvider#getName()}
+	 * @throws IllegalArgumentException	if no engine with the given name is registered
+	 * @return		a new, empty board backed by the named engine
+	 */
+	public static LifeEngine create(String name, int boardWidth, int boardHeight) {
+		for(LifeEngineProvider provider : getProviders()) {
+			if(provider.getName().equals(name)) return provider.create(boardWidth, boardHeight);
+		}
+		throw new IllegalArgumentException("No Game of Life engine named \"" + name + "\" is registered");
+	}
+
+	/**
+	 * Creates a board which picks the fastest registered engine for its current
+	 * population density as the game evolves.
+	 *
+	 * @return	a new, empty {@link AdaptiveGameOfLife}
+	 */
+	public static LifeEngine createDefault(int boardWidth, int boardHeight) {
+		return new AdaptiveGameOfLife(boardWidth, boardHeight);
+	}
+}
\ No newline at end of file
@@ -6,12 +6,19 @@ import org.junit.Before;
 import org.junit.Test;
 
 public class LifeGameTest {
-	ConwaysGameOfLife gameOfLife;
+	LifeEngine gameOfLife;
 	private static final int BOARD_WIDTH = 8, BOARD_HEIGHT = 6;
 	
 	@Before
 	public void beforeHook() {
-		gameOfLife = new ConwaysGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+		gameOfLife = createGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+	}
+
+	/**
+	 * Creates the board under test; subclasses override this to run the suite against another {@link LifeEngine}.
+	 */
+	protected LifeEngine createGameOfLife(int boardWidth, int boardHeight) {
+		return new ConwaysGameOfLife(boardWidth, boardHeight);
 	}
 
 	// ####################################################
@@ -19,17 +26,17 @@ public class LifeGameTest {
 	// ####################################################
 	@Test(expected=IllegalArgumentException.class)
 	public void testBoardWidthTooSmallConstructor() {
-		gameOfLife = new ConwaysGameOfLife(-5, 5);
+		gameOfLife = createGameOfLife(-5, 5);
 	}
 
 	@Test(expected=IllegalArgumentException.class)
 	public void testBoardHeightTooSmallConstructor() {
-		gameOfLife = new ConwaysGameOfLife(5, -5);
+		gameOfLife = createGameOfLife(5, -5);
 	}
 
 	@Test(expected=IllegalArgumentException.class)
 	public void testBoardWidthAndHeightTooSmallConstructor() {
-		gameOfLife = new ConwaysGameOfLife(-5, -5);
+		gameOfLife = createGameOfLife(-5, -5);
 	}
 
 	@Test
@@ -52,14 +59,14 @@ public class LifeGameTest {
 	@Test
 	public void testGetBoardWidthAfterConstructingDifferentSizeBoard() {
 		int newHeight = 15;
-		gameOfLife = new ConwaysGameOfLife(gameOfLife.getBoardWidth(), newHeight);
+		gameOfLife = createGameOfLife(gameOfLife.getBoardWidth(), newHeight);
 		assertEquals(gameOfLife.getBoardHeight(), newHeight);
 	}
 
 	@Test
 	public void testGetBoardHeightAfterConstructingDifferentSizeBoard() {
 		int newWidth = 20;
-		gameOfLife = new ConwaysGameOfLife(newWidth, gameOfLife.getBoardHeight());
+		gameOfLife = createGameOfLife(newWidth, gameOfLife.getBoardHeight());
 		assertEquals(gameOfLife.getBoardWidth(), newWidth);
 	}
 
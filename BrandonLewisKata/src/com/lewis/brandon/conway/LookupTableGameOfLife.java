@@ -0,0 +1,177 @@
+package com.lewis.brandon.conway;
+
+import java.util.Arrays;
+
+/**
+ * A {@link LifeEngine} which steps the board two cells by two cells at a time using a
+ * precomputed table instead of counting neighbors.  The 4x4 neighborhood around each
+ * 2x2 block is 16 bits, which index a 64KB table holding the block's next generation.
+ *
+ * Cells are packed one bit each into rows of longs, with a border of dead cells on every
+ * side so that neighborhoods at the edges of the board can be read without bounds checks.
+ */
+public class LookupTableGameOfLife extends AbstractLifeEngine {
+
+	/**
+	 * Maps a 4x4 neighborhood to the next generation of its center 2x2 block.  Bit
+	 * <code>row * 4 + column</code> of the index is the cell at that position of the
+	 * neighborhood; bits 0-3 of the result are the top-left, top-right, bottom-left and
+	 * bottom-right cells of the block.
+	 */
+	private static final byte[] NEXT_BLOCK = new byte[1 << 16];
+	static {
+		for(int neighborhood = 0; neighborhood < NEXT_BLOCK.length; neighborhood++) {
+			int block = 0;
+			for(int cell = 0; cell < 4; cell++) {
+				int column = 1 + (cell & 1), row = 1 + (cell >> 1);
+				int neighbors = 0;
+				for(int targetRow = row - 1; targetRow <= row + 1; targetRow++) {
+					for(int targetColumn = column - 1; targetColumn <= column + 1; targetColumn++) {
+						if(targetRow == row && targetColumn == column) continue;
+						neighbors += (neighborhood >> (targetRow * 4 + targetColumn)) & 1;
+					}
+				}
+				boolean alive = ((neighborhood >> (row * 4 + column)) & 1) != 0;
+				if(neighbors == 3 || (alive && neighbors == 2)) block |= 1 << cell;
+			}
+			NEXT_BLOCK[neighborhood] = (byte) block;
+		}
+	}
+
+	// Cell (xIndex, yIndex) is bit xIndex + 1 of row yIndex + 1
+	private final int wordsPerRow;
+	private long[] rows, nextRows;
+	/** Set once rows has been handed to a snapshot, after which it is never written to again */
+	private boolean rowsShared;
+	private int population;
+
+	/**
+	 * @param boardWidth	the number of cells wide the board is.  A playable board must have a boardWidth of at least 2
+	 * @param boardHeight	the number of cells tall the board is.  A playable board must have a boardHeight of at least 2
+	 *
+	 * @throws IllegalArgumentException	if the board is constructed with fewer than 2 cells wide or fewer than 2 cells tall
+	 */
+	public LookupTableGameOfLife(int boardWidth, int boardHeight) {
+		super(boardWidth, boardHeight);
+		// Blocks on the last column/row of an odd sized board read up to two cells past the edge
+		wordsPerRow = (boardWidth + 3) / 64 + 1;
+		rows = new long[(boardHeight + 3) * wordsPerRow];
+		nextRows = new long[rows.length];
+	}
+
+	@Override
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "check life/death status");
+		int bit = xIndex + 1;
+		return (rows[(yIndex + 1) * wordsPerRow + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	@Override
+	public int getPopulation() { return population; }
+
+	/**
+	 * Shares the packed rows with the snapshot rather than copying the board; the next
+	 * generation is then calculated into a new array instead of the recycled one.
+	 */
+	@Override
+	public BoardSnapshot getSnapshot() {
+		rowsShared = true;
+		return new RowsSnapshot(getGeneration(), getBoardWidth(), getBoardHeight(), rows, wordsPerRow, population);
+	}
+
+	@Override
+	protected void setCell(int xIndex, int yIndex, boolean alive) {
+		if(rowsShared) {
+			rows = rows.clone();
+			rowsShared = false;
+		}
+		int bit = xIndex + 1, word = (yIndex + 1) * wordsPerRow + (bit >>> 6);
+		boolean wasAlive = (rows[word] & (1L << bit)) != 0;
+		if(wasAlive == alive) return;
+		rows[word] ^= 1L << bit;
+		population += alive ? 1 : -1;
+	}
+
+	@Override
+	public void calculateNextGeneration() {
+		int boardWidth = getBoardWidth(), boardHeight = getBoardHeight();
+		Arrays.fill(nextRows, 0L);
+		int newPopulation = 0;
+		for(int yIndex = 0; yIndex < boardHeight; yIndex += 2) {
+			// Rows yIndex - 1 through yIndex + 2 of the board
+			int above = yIndex * wordsPerRow, top = above + wordsPerRow, bottom = top + wordsPerRow, below = bottom + wordsPerRow;
+			boolean hasBottomRow = yIndex + 1 < boardHeight;
+			for(int xIndex = 0; xIndex < boardWidth; xIndex += 2) {
+				// Columns xIndex - 1 through xIndex + 2 of the board are bits xIndex through xIndex + 3
+				int neighborhood = nibble(rows, above, xIndex)
+						| nibble(rows, top, xIndex) << 4
+						| nibble(rows, bottom, xIndex) << 8
+						| nibble(rows, below, xIndex) << 12;
+				int block = NEXT_BLOCK[neighborhood];
+				if(block == 0) continue;
+				if(xIndex + 1 == boardWidth) block &= 0b0101;	// Drop the column past the edge
+				if(!hasBottomRow) block &= 0b0011;				// Drop the row past the edge
+				newPopulation += Integer.bitCount(block);
+				setPair(nextRows, top, xIndex + 1, block & 0b11);
+				setPair(nextRows, bottom, xIndex + 1, block >> 2);
+			}
+		}
+		long[] swap = rows;
+		rows = nextRows;
+		nextRows = rowsShared ? new long[rows.length] : swap;
+		rowsShared = false;
+		population = newPopulation;
+		countGeneration();
+	}
+
+	/**
+	 * Reads the four bits starting at an even bit index of a row.
+	 */
+	private static int nibble(long[] rows, int rowStart, int bit) {
+		int word = rowStart + (bit >>> 6), offset = bit & 63;
+		if(offset <= 60) return (int) (rows[word] >>> offset) & 0xF;
+		return (int) ((rows[word] >>> offset) | (rows[word + 1] << (64 - offset))) & 0xF;
+	}
+
+	/**
+	 * Sets the two bits starting at an odd bit index of a row.
+	 */
+	private static void setPair(long[] rows, int rowStart, int bit, int pair) {
+		if(pair == 0) return;
+		int word = rowStart + (bit >>> 6), offset = bit & 63;
+		rows[word] |= (long) pair << offset;
+		if(offset == 63 && (pair & 0b10) != 0) rows[word + 1] |= 1L;
+	}
+
+	private static final class RowsSnapshot extends BoardSnapshot {
+		private final long[] rows;
+		private final int wordsPerRow, population;
+
+		RowsSnapshot(long generation, int boardWidth, int boardHeight, long[] rows, int wordsPerRow, int population) {
+			super(generation, boardWidth, boardHeight);
+			this.rows = rows;
+			this.wordsPerRow = wordsPerRow;
+			this.population = population;
+		}
+
+		@Override
+		public int getPopulation() { return population; }
+
+		@Override
+		protected boolean cellAlive(int xIndex, int yIndex) {
+			int bit = xIndex + 1;
+			return (rows[(yIndex + 1) * wordsPerRow + (bit >>> 6)] & (1L << bit)) != 0;
+		}
+	}
+
+	/**
+	 * Registers {@link LookupTableGameOfLife} with {@link java.util.ServiceLoader} under the name "lookup-table".
+	 */
+	public static class Provider implements LifeEngineProvider {
+		@Override
+		public String getName() { return "lookup-table"; }
+
+		@Override
+		public LifeEngine create(int boardWidth, int boardHeight) { return new LookupTableGameOfLife(boardWidth, boardHeight); }
+	}
+}
\ No newline at end of file
@@ -28,7 +28,7 @@ import javafx.stage.Stage;
 public class MainApp extends Application {
 
 	Boolean isPlaying = false;
-	ConwaysGameOfLife gameOfLife = new ConwaysGameOfLife(8, 6);
+	LifeEngine gameOfLife = LifeEngines.createDefault(8, 6);
 	static final int CELL_SIZE = 30, GRID_OFFSET_Y = 100, GRID_OFFSET_X = 10, MIN_GRID_WIDTH = 4, MAX_GRID_WIDTH = 60, MIN_GRID_HEIGHT = 4, MAX_GRID_HEIGHT = 30;
 	static final Color LIVING_CELL_COLOR = Color.MEDIUMSEAGREEN, DEAD_CELL_COLOR = Color.DIMGRAY;
 	
@@ -94,7 +94,7 @@ public class MainApp extends Application {
 				widthInput.setText(String.valueOf(newValue.intValue()));
 				int width = Integer.valueOf(widthInput.getText());
 				int height = Integer.valueOf(heightInput.getText());
-				gameOfLife = new ConwaysGameOfLife(width, height);
+				gameOfLife = LifeEngines.createDefault(width, height);
 				updateGrid();
 			}
 		});
@@ -122,7 +122,7 @@ public class MainApp extends Application {
 				heightInput.setText(String.valueOf(newValue.intValue()));
 				int width = Integer.valueOf(widthInput.getText());
 				int height = Integer.valueOf(heightInput.getText());
-				gameOfLife = new ConwaysGameOfLife(width, height);
+				gameOfLife = LifeEngines.createDefault(width, height);
 				updateGrid();
 			}
 		});
@@ -145,7 +145,7 @@ public class MainApp extends Application {
 		clearBtn.setOnAction(new EventHandler<ActionEvent>() {
 			@Override
 			public void handle(ActionEvent event) {
-				gameOfLife = new ConwaysGameOfLife(gameOfLife.getBoardWidth(), gameOfLife.getBoardHeight());
+				gameOfLife = LifeEngines.createDefault(gameOfLife.getBoardWidth(), gameOfLife.getBoardHeight());
 				updateGrid();
 			}
 		});
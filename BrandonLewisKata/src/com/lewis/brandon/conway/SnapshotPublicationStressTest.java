@@ -0,0 +1,201 @@
+package com.lewis.brandon.conway;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Stress tests in the style of jcstress: several actor threads hammer one board at the
+ * same time and every state a reader can observe is checked for consistency.
+ */
+public class SnapshotPublicationStressTest {
+	private static final int BOARD_SIZE = 48, GENERATIONS = 3000, READERS = 3;
+
+	private final AtomicReference<String> failure = new AtomicReference<>();
+
+	@Test
+	public void testReadersNeverSeeTornGenerations() throws InterruptedException {
+		assertReadersNeverSeeTornGenerations(new ConwaysGameOfLife(BOARD_SIZE, BOARD_SIZE));
+	}
+
+	@Test
+	public void testReadersNeverSeeTornGenerationsOfAdaptiveBoard() throws InterruptedException {
+		// MainApp's board, which moves between engines that change their cells in place
+		assertReadersNeverSeeTornGenerations(LifeEngines.createDefault(BOARD_SIZE, BOARD_SIZE));
+	}
+
+	private void assertReadersNeverSeeTornGenerations(LifeEngine gameOfLife) throws InterruptedException {
+		// A row of blinkers: horizontal on even generations, vertical on odd ones
+		for(int xIndex = 2; xIndex + 2 < BOARD_SIZE; xIndex += 4) {
+			for(int yIndex = 2; yIndex + 2 < BOARD_SIZE; yIndex += 4) {
+				gameOfLife.toggleCell(xIndex - 1, yIndex);
+				gameOfLife.toggleCell(xIndex, yIndex);
+				gameOfLife.toggleCell(xIndex + 1, yIndex);
+			}
+		}
+		int blinkerCells = gameOfLife.getPopulation();
+
+		runActors(() -> {
+			for(int generation = 0; generation < GENERATIONS; generation++) gameOfLife.calculateNextGeneration();
+		}, () -> {
+			BoardSnapshot snapshot = gameOfLife.getSnapshot();
+			boolean horizontal = snapshot.getGeneration() % 2 == 0;
+			if(snapshot.getPopulation() != blinkerCells) {
+				fail("generation " + snapshot.getGeneration() + " reported population " + snapshot.getPopulation());
+			}
+			for(int xIndex = 2; xIndex + 2 < BOARD_SIZE; xIndex += 4) {
+				for(int yIndex = 2; yIndex + 2 < BOARD_SIZE; yIndex += 4) {
+					if(snapshot.isCellAlive(xIndex - 1, yIndex) != horizontal
+							|| snapshot.isCellAlive(xIndex, yIndex - 1) == horizontal
+							|| !snapshot.isCellAlive(xIndex, yIndex)) {
+						fail("blinker at " + xIndex + "," + yIndex + " is out of phase with generation " + snapshot.getGeneration());
+					}
+				}
+			}
+		});
+		assertEquals(GENERATIONS, gameOfLife.getSnapshot().getGeneration());
+	}
+
+	@Test
+	public void testSnapshotPopulationAlwaysMatchesItsCells() throws InterruptedException {
+		ConwaysGameOfLife gameOfLife = new ConwaysGameOfLife(BOARD_SIZE, BOARD_SIZE);
+		gameOfLife.randomizeFirstGeneration();
+
+		runActors(() -> {
+			for(int generation = 0; generation < GENERATIONS; generation++) {
+				gameOfLife.calculateNextGeneration();
+				// Keep the board from dying out by editing it from the same thread between generations
+				gameOfLife.toggleCell(generation % BOARD_SIZE, (generation * 7) % BOARD_SIZE);
+			}
+		}, () -> {
+			BoardSnapshot snapshot = gameOfLife.getSnapshot();
+			int population = 0;
+			for(boolean[] column : snapshot.getMatrix()) {
+				for(boolean cell : column) { if(cell) population++; }
+			}
+			if(population != snapshot.getPopulation()) {
+				fail("generation " + snapshot.getGeneration() + " has " + population + " living cells but reported " + snapshot.getPopulation());
+			}
+		});
+	}
+
+	@Test
+	public void testConcurrentTogglesAreNeverLost() throws InterruptedException {
+		ConwaysGameOfLife gameOfLife = new ConwaysGameOfLife(BOARD_SIZE, BOARD_SIZE);
+		List<Thread> togglers = new ArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+		for(int column = 0; column < 4; column++) {
+			int xIndex = column;
+			togglers.add(new Thread(() -> {
+				awaitQuietly(start);
+				for(int yIndex = 0; yIndex < BOARD_SIZE; yIndex++) gameOfLife.toggleCell(xIndex, yIndex);
+			}));
+		}
+		for(Thread toggler : togglers) toggler.start();
+		start.countDown();
+		for(Thread toggler : togglers) toggler.join();
+
+		assertEquals(4 * BOARD_SIZE, gameOfLife.getPopulation());
+		for(int xIndex = 0; xIndex < 4; xIndex++) {
+			for(int yIndex = 0; yIndex < BOARD_SIZE; yIndex++) assertTrue(gameOfLife.isCellAlive(xIndex, yIndex));
+		}
+	}
+
+	@Test
+	public void testTogglesDuringGenerationsAreAppliedBetweenGenerations() throws InterruptedException {
+		// A block is a still life, so the toggled cell, which can never survive a generation, must not disturb it
+		ConwaysGameOfLife gameOfLife = new ConwaysGameOfLife(BOARD_SIZE, BOARD_SIZE);
+		gameOfLife.toggleCell(10, 10);
+		gameOfLife.toggleCell(11, 10);
+		gameOfLife.toggleCell(10, 11);
+		gameOfLife.toggleCell(11, 11);
+		Thread toggler = new Thread(() -> {
+			for(int toggle = 0; toggle < 20000; toggle++) gameOfLife.toggleCell(BOARD_SIZE - 1, BOARD_SIZE - 1);
+		});
+		toggler.start();
+		long generations = 0;
+		while(toggler.isAlive()) {
+			gameOfLife.calculateNextGeneration();
+			generations++;
+		}
+		toggler.join();
+		gameOfLife.calculateNextGeneration();
+
+		assertEquals(generations + 1, gameOfLife.getSnapshot().getGeneration());
+		assertEquals(4, gameOfLife.getPopulation());
+		assertTrue(gameOfLife.isCellAlive(10, 10) && gameOfLife.isCellAlive(11, 10)
+				&& gameOfLife.isCellAlive(10, 11) && gameOfLife.isCellAlive(11, 11));
+	}
+
+	@Test
+	public void testToggleReturnsNewStateWhileGenerationsAreCalculated() throws InterruptedException {
+		// Lone cells three apart die every generation and never cause a birth, so each toggle finds its cell dead
+		int boardSize = 99;
+		ConwaysGameOfLife gameOfLife = new ConwaysGameOfLife(boardSize, boardSize);
+		AtomicBoolean togglerDone = new AtomicBoolean();
+		Thread stepper = new Thread(() -> {
+			while(!togglerDone.get()) gameOfLife.calculateNextGeneration();
+		});
+		stepper.start();
+		try {
+			for(int xIndex = 0; xIndex < boardSize; xIndex += 3) {
+				for(int yIndex = 0; yIndex < boardSize; yIndex += 3) {
+					assertTrue("toggle of " + xIndex + "," + yIndex + " did not report the cell alive", gameOfLife.toggleCell(xIndex, yIndex));
+				}
+			}
+		} finally {
+			togglerDone.set(true);
+			stepper.join();
+		}
+	}
+
+	/**
+	 * Runs one writer and {@link #READERS} reader threads together; the readers repeat
+	 * their check until the writer finishes.  Fails if any reader check fails or the writer throws.
+	 */
+	private void runActors(Runnable writer, Runnable readerCheck) throws InterruptedException {
+		AtomicBoolean writerDone = new AtomicBoolean();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		threads.add(new Thread(() -> {
+			awaitQuietly(start);
+			try {
+				writer.run();
+			} catch(Throwable e) {
+				failure.compareAndSet(null, "writer failed: " + e);
+			} finally {
+				writerDone.set(true);
+			}
+		}));
+		for(int reader = 0; reader < READERS; reader++) {
+			threads.add(new Thread(() -> {
+				awaitQuietly(start);
+				while(!writerDone.get() && failure.get() == null) {
+					try {
+						readerCheck.run();
+					} catch(AssertionError e) {
+						failure.compareAndSet(null, e.getMessage());
+					}
+				}
+			}));
+		}
+		for(Thread thread : threads) thread.start();
+		start.countDown();
+		for(Thread thread : threads) thread.join();
+		assertNull(failure.get());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.lewis.brandon.conway;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link LifeEngine} which only stores the living cells.  Each generation visits the
+ * living cells and their neighbors rather than the whole board, so it is much cheaper
+ * than {@link ConwaysGameOfLife} when only a small fraction of the board is alive and
+ * more expensive when the board is crowded.
+ */
+public class SparseGameOfLife extends AbstractLifeEngine {
+
+	private Set<Long> livingCells = new HashSet<>();
+	/** Set once livingCells has been handed to a snapshot, after which it is copied before being changed */
+	private boolean livingCellsShared;
+
+	/**
+	 * @param boardWidth	the number of cells wide the board is.  A playable board must have a boardWidth of at least 2
+	 * @param boardHeight	the number of cells tall the board is.  A playable board must have a boardHeight of at least 2
+	 *
+	 * @throws IllegalArgumentException	if the board is constructed with fewer than 2 cells wide or fewer than 2 cells tall
+	 */
+	public SparseGameOfLife(int boardWidth, int boardHeight) {
+		super(boardWidth, boardHeight);
+	}
+
+	/**
+	 * Loads the whole board in one go, sizing the set for every living cell up front.
+	 */
+	private SparseGameOfLife(BoardSnapshot snapshot) {
+		super(snapshot.getBoardWidth(), snapshot.getBoardHeight());
+		livingCells = new HashSet<>(snapshot.getPopulation() * 4 / 3 + 1);
+		boolean[][] matrix = snapshot.getMatrix();
+		for(int xIndex = 0; xIndex < matrix.length; xIndex++) {
+			for(int yIndex = 0; yIndex < matrix[xIndex].length; yIndex++) {
+				if(matrix[xIndex][yIndex]) livingCells.add(key(xIndex, yIndex));
+			}
+		}
+	}
+
+	@Override
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "check life/death status");
+		return livingCells.contains(key(xIndex, yIndex));
+	}
+
+	@Override
+	public boolean[][] getMatrix() {
+		boolean[][] matrix = new boolean[getBoardWidth()][getBoardHeight()];
+		for(long cell : livingCells) {
+			matrix[xOf(cell)][yOf(cell)] = true;
+		}
+		return matrix;
+	}
+
+	@Override
+	public int getPopulation() { return livingCells.size(); }
+
+	/**
+	 * Shares the set of living cells with the snapshot rather than copying the board;
+	 * each generation builds a new set anyway, and edits copy it first if it is shared.
+	 */
+	@Override
+	public BoardSnapshot getSnapshot() {
+		livingCellsShared = true;
+		return new LivingCellsSnapshot(getGeneration(), getBoardWidth(), getBoardHeight(), livingCells);
+	}
+
+	@Override
+	protected void setCell(int xIndex, int yIndex, boolean alive) {
+		if(livingCellsShared) {
+			livingCells = new HashSet<>(livingCells);
+			livingCellsShared = false;
+		}
+		if(alive) {
+			livingCells.add(key(xIndex, yIndex));
+		} else {
+			livingCells.remove(key(xIndex, yIndex));
+		}
+	}
+
+	@Override
+	public void calculateNextGeneration() {
+		int boardWidth = getBoardWidth(), boardHeight = getBoardHeight();
+		// Every cell that can be alive next generation is a neighbor of a currently living cell
+		Map<Long, Integer> neighborCounts = new HashMap<>(livingCells.size() * 8);
+		for(long cell : livingCells) {
+			int xIndex = xOf(cell), yIndex = yOf(cell);
+			for(int targetX = xIndex - 1; targetX <= xIndex + 1; targetX++) {
+				for(int targetY = yIndex - 1; targetY <= yIndex + 1; targetY++) {
+					// Skip if targeting outside of game board
+					if(targetX < 0 || targetY < 0 || targetX >= boardWidth || targetY >= boardHeight) continue;
+					// Skip if targeting current cell
+					if(targetX == xIndex && targetY == yIndex) continue;
+					neighborCounts.merge(key(targetX, targetY), 1, Integer::sum);
+				}
+			}
+		}
+
+		Set<Long> newLivingCells = new HashSet<>();
+		for(Map.Entry<Long, Integer> entry : neighborCounts.entrySet()) {
+			int neighbors = entry.getValue();
+			if(neighbors == 3 || (neighbors == 2 && livingCells.contains(entry.getKey()))) {
+				newLivingCells.add(entry.getKey());
+			}
+		}
+		livingCells = newLivingCells;
+		livingCellsShared = false;
+		countGeneration();
+	}
+
+	private static long key(int xIndex, int yIndex) { return ((long) xIndex << 32) | yIndex; }
+
+	private static int xOf(long key) { return (int) (key >>> 32); }
+
+	private static int yOf(long key) { return (int) key; }
+
+	private static final class LivingCellsSnapshot extends BoardSnapshot {
+		private final Set<Long> livingCells;
+
+		LivingCellsSnapshot(long generation, int boardWidth, int boardHeight, Set<Long> livingCells) {
+			super(generation, boardWidth, boardHeight);
+			this.livingCells = livingCells;
+		}
+
+		@Override
+		public int getPopulation() { return livingCells.size(); }
+
+		@Override
+		protected boolean cellAlive(int xIndex, int yIndex) { return livingCells.contains(key(xIndex, yIndex)); }
+
+		@Override
+		public boolean[][] getMatrix() {
+			boolean[][] matrix = new boolean[getBoardWidth()][getBoardHeight()];
+			for(long cell : livingCells) matrix[xOf(cell)][yOf(cell)] = true;
+			return matrix;
+		}
+	}
+
+	/**
+	 * Registers {@link SparseGameOfLife} with {@link java.util.ServiceLoader} under the name "sparse".
+	 */
+	public static class Provider implements LifeEngineProvider {
+		@Override
+		public String getName() { return "sparse"; }
+
+		@Override
+		public LifeEngine create(int boardWidth, int boardHeight) { return new SparseGameOfLife(boardWidth, boardHeight); }
+
+		@Override
+		public LifeEngine create(BoardSnapshot snapshot) { return new SparseGameOfLife(snapshot); }
+	}
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.lewis.brandon.conway.distributed;
+
+import static com.lewis.brandon.conway.distributed.TileProtocol.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.lewis.brandon.conway.AbstractLifeEngine;
+import com.lewis.brandon.conway.BoardSnapshot;
+
+/**
+ * A {@link com.lewis.brandon.conway.LifeEngine} whose board is split into a grid of
+ * tiles, each owned by a separate {@link TileWorker} JVM on the local host, so that the
+ * board is not limited by the memory of a single JVM.  This object is the coordinator:
+ * it starts the workers, routes cell accesses to the owning tile, and acts as the
+ * generation barrier by waiting for every worker to report its population before the
+ * next generation is started.  The boundary rows and columns are exchanged directly
+ * between neighboring workers.
+ *
+ * The workers are separate processes, so a game must be {@link #close() closed} once
+ * it is no longer needed.  Communication failures are reported as
+ * {@link UncheckedIOException}.
+ */
+public class DistributedGameOfLife extends AbstractLifeEngine implements Closeable {
+
+	/** How long to wait for every worker process to start and connect to its neighbors */
+	static final long WORKER_STARTUP_TIMEOUT_MILLIS = 30000;
+
+	private final int tilesAcross, tilesDown;
+	private final int[] tileXOffsets, tileYOffsets;		// first cell of each tile column/row, then the board size
+	private final SocketChannel[] workers;				// indexed by tile id, row by row
+	private final int[] tilePopulations;
+	private final List<Process> workerProcesses = new ArrayList<>();
+	private boolean closed;
+
+	/**
+	 * @param tilesAcross	the number of tile columns to split the board into
+	 * @param tilesDown		the number of tile rows to split the board into
+	 * @throws IllegalArgumentException	if the board is too small or cannot be split into the requested tiles
+	 * @throws IOException	if the worker processes could not be started or connected
+	 */
+	public DistributedGameOfLife(int boardWidth, int boardHeight, int tilesAcross, int tilesDown) throws IOException {
+		this(boardWidth, boardHeight, tilesAcross, tilesDown, Collections.<String>emptyList());
+	}
+
+	/**
+	 * @param workerJvmOptions	options passed to each worker JVM, e.g. <code>-Xmx4g</code>
+	 * @throws IllegalArgumentException	if the board is too small or cannot be split into the requested tiles
+	 * @throws IOException	if the worker processes could not be started or connected
+	 */
+	public DistributedGameOfLife(int boardWidth, int boardHeight, int tilesAcross, int tilesDown,
+			List<String> workerJvmOptions) throws IOException {
+		super(boardWidth, boardHeight);
+		if(tilesAcross < 1 || tilesAcross > boardWidth) {
+			throw new IllegalArgumentException("A board " + boardWidth + " cells wide cannot be split into " + tilesAcross + " columns of tiles");
+		} else if(tilesDown < 1 || tilesDown > boardHeight) {
+			throw new IllegalArgumentException("A board " + boardHeight + " cells tall cannot be split into " + tilesDown + " rows of tiles");
+		}
+		this.tilesAcross = tilesAcross;
+		this.tilesDown = tilesDown;
+		tileXOffsets = splitEvenly(boardWidth, tilesAcross);
+		tileYOffsets = splitEvenly(boardHeight, tilesDown);
+		workers = new SocketChannel[tilesAcross * tilesDown];
+		tilePopulations = new int[workers.length];
+		try {
+			startWorkers(workerJvmOptions);
+		} catch(IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	private static int[] splitEvenly(int size, int parts) {
+		int[] offsets = new int[parts + 1];
+		for(int part = 0; part <= parts; part++) offsets[part] = (int) ((long) part * size / parts);
+		return offsets;
+	}
+
+	private void startWorkers(List<String> workerJvmOptions) throws IOException {
+		try(ServerSocketChannel server = ServerSocketChannel.open(); Selector selector = Selector.open()) {
+			server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			server.configureBlocking(false);
+			server.register(selector, SelectionKey.OP_ACCEPT);
+
+			List<String> command = new ArrayList<>();
+			command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+			command.addAll(workerJvmOptions);
+			command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"),
+					TileWorker.class.getName(), String.valueOf(server.socket().getLocalPort())));
+			for(int tileId = 0; tileId < workers.length; tileId++) {
+				workerProcesses.add(new ProcessBuilder(command).redirectOutput(Redirect.INHERIT).redirectError(Redirect.INHERIT).start());
+			}
+
+			// Tiles are assigned in the order the workers connect
+			long deadline = System.currentTimeMillis() + WORKER_STARTUP_TIMEOUT_MILLIS;
+			int[] peerPorts = new int[workers.length];
+			for(int tileId = 0; tileId < workers.length; tileId++) {
+				workers[tileId] = acceptWorker(server, selector, deadline);
+				expect(workers[tileId], HELLO);
+				peerPorts[tileId] = readInt(workers[tileId]);
+			}
+			for(int tileId = 0; tileId < workers.length; tileId++) {
+				int column = tileId % tilesAcross, row = tileId / tilesAcross;
+				int[] assignment = new int[6 + peerPorts.length];
+				assignment[0] = ASSIGN;
+				assignment[1] = tileId;
+				assignment[2] = tilesAcross;
+				assignment[3] = tilesDown;
+				assignment[4] = tileXOffsets[column + 1] - tileXOffsets[column];
+				assignment[5] = tileYOffsets[row + 1] - tileYOffsets[row];
+				System.arraycopy(peerPorts, 0, assignment, 6, peerPorts.length);
+				writeInts(workers[tileId], assignment);
+			}
+			for(SocketChannel worker : workers) expect(worker, READY);
+		}
+	}
+
+	private SocketChannel acceptWorker(ServerSocketChannel server, Selector selector, long deadline) throws IOException {
+		while(true) {
+			SocketChannel worker = server.accept();
+			if(worker != null) {
+				worker.configureBlocking(true);
+				worker.socket().setTcpNoDelay(true);
+				return worker;
+			}
+			for(Process process : workerProcesses) {
+				if(!process.isAlive()) throw new IOException("A tile worker exited during startup with status " + process.exitValue());
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if(remaining <= 0) throw new IOException("Timed out waiting for tile workers to connect");
+			selector.select(Math.min(remaining, 100));
+			selector.selectedKeys().clear();
+		}
+	}
+
+	/**
+	 * @return	the number of worker processes the board is split across
+	 */
+	public int getTileCount() { return workers.length; }
+
+	@Override
+	public boolean isCellAlive(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "check life/death status");
+		return sendCellRequest(GET_CELL, xIndex, yIndex);
+	}
+
+	@Override
+	public boolean toggleCell(int xIndex, int yIndex) {
+		checkCellIndex(xIndex, yIndex, "toggle life/death status");
+		boolean alive = sendCellRequest(TOGGLE, xIndex, yIndex);
+		tilePopulations[tileIdOf(xIndex, yIndex)] += alive ? 1 : -1;
+		return alive;
+	}
+
+	@Override
+	protected void setCell(int xIndex, int yIndex, boolean alive) {
+		if(isCellAlive(xIndex, yIndex) != alive) toggleCell(xIndex, yIndex);
+	}
+
+	private boolean sendCellRequest(int code, int xIndex, int yIndex) {
+		int column = tileColumnOf(xIndex), row = tileRowOf(yIndex);
+		SocketChannel worker = workers[row * tilesAcross + column];
+		try {
+			writeInts(worker, code, xIndex - tileXOffsets[column], yIndex - tileYOffsets[row]);
+			return readInt(worker) != 0;
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Gathers every tile into a single matrix, so this is only usable for boards which
+	 * fit in the coordinator's memory.
+	 */
+	@Override
+	public boolean[][] getMatrix() { return readRegion(0, 0, getBoardWidth(), getBoardHeight()); }
+
+	/**
+	 * Fetches only the parts of the tiles which overlap the region, so this is usable for
+	 * any region which fits in the coordinator's memory however large the board is.
+	 */
+	@Override
+	public BoardSnapshot getSnapshot(int xIndex, int yIndex, int width, int height) {
+		checkRegion(xIndex, yIndex, width, height);
+		boolean[][] matrix = readRegion(xIndex, yIndex, width, height);
+		int population = 0;
+		for(boolean[] column : matrix) {
+			for(boolean alive : column) {
+				if(alive) population++;
+			}
+		}
+		return BoardSnapshot.ofMatrix(getGeneration(), matrix, population);
+	}
+
+	/**
+	 * Asks every tile overlapping the region for its part of it, then gathers the parts.
+	 * Every request is sent before any reply is read, so the workers pack their cells in parallel.
+	 */
+	private boolean[][] readRegion(int xIndex, int yIndex, int width, int height) {
+		boolean[][] matrix = new boolean[width][height];
+		int firstColumn = tileColumnOf(xIndex), lastColumn = tileColumnOf(xIndex + width - 1);
+		int firstRow = tileRowOf(yIndex), lastRow = tileRowOf(yIndex + height - 1);
+		try {
+			for(int pass = 0; pass < 2; pass++) {
+				for(int row = firstRow; row <= lastRow; row++) {
+					int top = Math.max(yIndex, tileYOffsets[row]), bottom = Math.min(yIndex + height, tileYOffsets[row + 1]);
+					for(int column = firstColumn; column <= lastColumn; column++) {
+						int left = Math.max(xIndex, tileXOffsets[column]), right = Math.min(xIndex + width, tileXOffsets[column + 1]);
+						SocketChannel worker = workers[row * tilesAcross + column];
+						if(pass == 0) {
+							writeInts(worker, GET_REGION, left - tileXOffsets[column], top - tileYOffsets[row], right - left, bottom - top);
+							continue;
+						}
+						ByteBuffer cells = readFully(worker, ByteBuffer.allocate(packedLength((right - left) * (bottom - top))));
+						int index = 0;
+						for(int cellX = left; cellX < right; cellX++) {
+							for(int cellY = top; cellY < bottom; cellY++, index++) {
+								matrix[cellX - xIndex][cellY - yIndex] = (cells.get(index >> 3) & (1 << (index & 7))) != 0;
+							}
+						}
+					}
+				}
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return matrix;
+	}
+
+	@Override
+	public int getPopulation() {
+		int population = 0;
+		for(int tilePopulation : tilePopulations) population += tilePopulation;
+		return population;
+	}
+
+	@Override
+	public void randomizeFirstGeneration() {
+		broadcastAndCollectPopulations(RANDOMIZE);
+		resetGenerationCount();
+	}
+
+	@Override
+	public void calculateNextGeneration() {
+		broadcastAndCollectPopulations(STEP);
+		countGeneration();
+	}
+
+	/**
+	 * Sends a command to every worker and waits until all of them have replied with their
+	 * new population, which also makes this the barrier between generations.
+	 */
+	private void broadcastAndCollectPopulations(int code) {
+		try {
+			for(SocketChannel worker : workers) writeInts(worker, code);
+			for(int tileId = 0; tileId < workers.length; tileId++) tilePopulations[tileId] = readInt(workers[tileId]);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private int tileIdOf(int xIndex, int yIndex) { return tileRowOf(yIndex) * tilesAcross + tileColumnOf(xIndex); }
+
+	private int tileColumnOf(int xIndex) { return tileOf(tileXOffsets, xIndex); }
+
+	private int tileRowOf(int yIndex) { return tileOf(tileYOffsets, yIndex); }
+
+	private static int tileOf(int[] offsets, int index) {
+		int found = Arrays.binarySearch(offsets, index);
+		return found >= 0 ? found : -found - 2;
+	}
+
+	/**
+	 * Shuts down every worker process.  Calling this more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if(closed) return;
+		closed = true;
+		for(SocketChannel worker : workers) {
+			if(worker == null) continue;
+			try {
+				writeInts(worker, SHUTDOWN);
+				worker.close();
+			} catch(IOException e) {
+				// The worker is already gone, which is what we wanted
+			}
+		}
+		for(Process process : workerProcesses) {
+			try {
+				if(!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+			} catch(InterruptedException e) {
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
\ No newline at end of file
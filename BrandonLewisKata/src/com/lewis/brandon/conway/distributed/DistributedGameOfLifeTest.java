@@ -0,0 +1,120 @@
+package com.lewis.brandon.conway.distributed;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.lewis.brandon.conway.BoardSnapshot;
+import com.lewis.brandon.conway.ConwaysGameOfLife;
+import com.lewis.brandon.conway.LifeEngine;
+
+/**
+ * Runs worker processes on the local host and checks the tiled board against the
+ * single-process {@link ConwaysGameOfLife}.
+ */
+public class DistributedGameOfLifeTest {
+	DistributedGameOfLife gameOfLife;
+	private static final int BOARD_WIDTH = 37, BOARD_HEIGHT = 23;
+
+	@After
+	public void afterHook() {
+		if(gameOfLife != null) gameOfLife.close();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testMoreTileColumnsThanCellsResultsInIllegalArgumentException() throws IOException {
+		gameOfLife = new DistributedGameOfLife(4, 4, 5, 1);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testZeroTileRowsResultsInIllegalArgumentException() throws IOException {
+		gameOfLife = new DistributedGameOfLife(4, 4, 1, 0);
+	}
+
+	@Test
+	public void testToggledCellIsVisibleAcrossTiles() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 2, 2);
+		assertTrue(gameOfLife.toggleCell(BOARD_WIDTH - 1, BOARD_HEIGHT - 1));
+		assertTrue(gameOfLife.isCellAlive(BOARD_WIDTH - 1, BOARD_HEIGHT - 1));
+		assertTrue(gameOfLife.getMatrix()[BOARD_WIDTH - 1][BOARD_HEIGHT - 1]);
+		assertEquals(1, gameOfLife.getPopulation());
+	}
+
+	@Test
+	public void testGliderCrossesTileCorner() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 2, 2);
+		LifeEngine reference = new ConwaysGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+		// Glider heading south-east through the point where all four tiles meet
+		int[][] glider = { { 1, 0 }, { 2, 1 }, { 0, 2 }, { 1, 2 }, { 2, 2 } };
+		for(int[] cell : glider) {
+			gameOfLife.toggleCell(cell[0] + 10, cell[1] + 3);
+			reference.toggleCell(cell[0] + 10, cell[1] + 3);
+		}
+		assertGenerationsMatch(reference, 40);
+	}
+
+	@Test
+	public void testRandomBoardMatchesSingleProcessEngine() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 3, 2);
+		assertEquals(6, gameOfLife.getTileCount());
+		assertGenerationsMatch(randomReference(new Random(26)), 60);
+	}
+
+	@Test
+	public void testSingleRowOfTilesMatchesSingleProcessEngine() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 4, 1);
+		assertGenerationsMatch(randomReference(new Random(27)), 60);
+	}
+
+	@Test
+	public void testRandomizedBoardReportsPopulationOfMatrix() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 2, 2);
+		gameOfLife.randomizeFirstGeneration();
+		int population = 0;
+		for(boolean[] column : gameOfLife.getMatrix()) {
+			for(boolean cell : column) { if(cell) population++; }
+		}
+		assertEquals(population, gameOfLife.getPopulation());
+	}
+
+	@Test
+	public void testRegionSnapshotsMatchSingleProcessEngine() throws IOException {
+		gameOfLife = new DistributedGameOfLife(BOARD_WIDTH, BOARD_HEIGHT, 3, 2);
+		LifeEngine reference = randomReference(new Random(30));
+		// Regions inside one tile, across tile edges, and covering the whole board
+		int[][] regions = { { 1, 1, 3, 4 }, { 5, 3, 25, 15 }, { 0, 11, BOARD_WIDTH, 1 }, { 0, 0, BOARD_WIDTH, BOARD_HEIGHT } };
+		for(int[] region : regions) {
+			BoardSnapshot expected = reference.getSnapshot(region[0], region[1], region[2], region[3]);
+			BoardSnapshot actual = gameOfLife.getSnapshot(region[0], region[1], region[2], region[3]);
+			assertEquals(expected.getPopulation(), actual.getPopulation());
+			assertTrue(Arrays.deepEquals(expected.getMatrix(), actual.getMatrix()));
+		}
+	}
+
+	private LifeEngine randomReference(Random random) {
+		LifeEngine reference = new ConwaysGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+		for(int xIndex = 0; xIndex < BOARD_WIDTH; xIndex++) {
+			for(int yIndex = 0; yIndex < BOARD_HEIGHT; yIndex++) {
+				if(random.nextInt(3) == 0) {
+					reference.toggleCell(xIndex, yIndex);
+					gameOfLife.toggleCell(xIndex, yIndex);
+				}
+			}
+		}
+		return reference;
+	}
+
+	private void assertGenerationsMatch(LifeEngine reference, int generations) {
+		for(int generation = 0; generation < generations; generation++) {
+			gameOfLife.calculateNextGeneration();
+			reference.calculateNextGeneration();
+			assertEquals("population of generation " + (generation + 1), reference.getPopulation(), gameOfLife.getPopulation());
+			assertTrue("board of generation " + (generation + 1), Arrays.deepEquals(reference.getMatrix(), gameOfLife.getMatrix()));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.lewis.brandon.conway.distributed;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Message codes and blocking channel helpers shared by {@link DistributedGameOfLife}
+ * and {@link TileWorker}.  Every message starts with an int code followed by int
+ * arguments; cell data is sent as bits packed eight to a byte.
+ */
+final class TileProtocol {
+
+	// Worker -> coordinator
+	static final int HELLO = 1, READY = 2;
+	// Coordinator -> worker.  GET_REGION takes a rectangle of the tile as xIndex, yIndex, width, height.
+	static final int ASSIGN = 10, TOGGLE = 11, GET_CELL = 12, RANDOMIZE = 13, STEP = 14, GET_REGION = 15, SHUTDOWN = 16;
+
+	private TileProtocol() {}
+
+	static void writeInts(SocketChannel channel, int... values) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(values.length * Integer.BYTES);
+		for(int value : values) buffer.putInt(value);
+		buffer.flip();
+		writeFully(channel, buffer);
+	}
+
+	static int readInt(SocketChannel channel) throws IOException {
+		return readFully(channel, ByteBuffer.allocate(Integer.BYTES)).getInt();
+	}
+
+	/**
+	 * @throws IOException	if the next message on the channel is not the expected one
+	 */
+	static void expect(SocketChannel channel, int code) throws IOException {
+		int received = readInt(channel);
+		if(received != code) {
+			throw new IOException("Expected message code " + code + " from " + channel.getRemoteAddress() + " but received " + received);
+		}
+	}
+
+	/**
+	 * Writes the whole of a buffer which is ready to be read from.
+	 */
+	static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) channel.write(buffer);
+	}
+
+	/**
+	 * Fills the remainder of a buffer from the channel, then flips it so it is ready to be read from.
+	 *
+	 * @throws EOFException		if the other end closes the connection first
+	 */
+	static ByteBuffer readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer) < 0) throw new EOFException("Connection closed by " + channel.getRemoteAddress());
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	static int packedLength(int cellCount) { return (cellCount + 7) / 8; }
+}
\ No newline at end of file
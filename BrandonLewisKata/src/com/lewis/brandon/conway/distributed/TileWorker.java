@@ -0,0 +1,240 @@
+package com.lewis.brandon.conway.distributed;
+
+import static com.lewis.brandon.conway.distributed.TileProtocol.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A worker process which owns one rectangular tile of a {@link DistributedGameOfLife}
+ * board.  The tile is stored with a one-cell-wide halo around it; before each
+ * generation the worker fills its halo from the edges of the neighboring tiles, which
+ * are connected to it directly, and then steps its own cells.
+ *
+ * Columns are exchanged with the west/east neighbors before rows are exchanged with the
+ * north/south neighbors.  Because the rows sent north and south already include the
+ * freshly received halo columns, the diagonal neighbors arrive in the halo's corners
+ * without needing connections to the diagonal tiles.  Within each pair the west/north
+ * tile always sends first and the east/south tile always receives first, so the blocking
+ * exchanges cannot deadlock.
+ *
+ * Usage: <code>java com.lewis.brandon.conway.distributed.TileWorker &lt;coordinator port&gt;</code>
+ */
+public final class TileWorker {
+
+	private final SocketChannel coordinator;
+	private SocketChannel north, south, east, west;
+	private int tileWidth, tileHeight;
+	private boolean[][] cells, nextCells;	// [xIndex + 1][yIndex + 1], surrounded by the halo
+	private int population;
+	private ByteBuffer haloBuffer;
+
+	public static void main(String[] args) throws IOException {
+		if(args.length != 1) {
+			System.err.println("Usage: java " + TileWorker.class.getName() + " <coordinator port>");
+			System.exit(2);
+		}
+		new TileWorker(Integer.parseInt(args[0])).run();
+	}
+
+	private TileWorker(int coordinatorPort) throws IOException {
+		coordinator = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), coordinatorPort));
+		coordinator.socket().setTcpNoDelay(true);
+	}
+
+	private void run() throws IOException {
+		try(ServerSocketChannel peerServer = ServerSocketChannel.open()) {
+			peerServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			writeInts(coordinator, HELLO, peerServer.socket().getLocalPort());
+			connectToNeighbors(peerServer);
+		}
+		writeInts(coordinator, READY);
+
+		try {
+			while(true) {
+				int code = readInt(coordinator);
+				switch(code) {
+				case TOGGLE: {
+					int xIndex = readInt(coordinator) + 1, yIndex = readInt(coordinator) + 1;
+					cells[xIndex][yIndex] = !cells[xIndex][yIndex];
+					population += cells[xIndex][yIndex] ? 1 : -1;
+					writeInts(coordinator, cells[xIndex][yIndex] ? 1 : 0);
+					break;
+				}
+				case GET_CELL: {
+					int xIndex = readInt(coordinator) + 1, yIndex = readInt(coordinator) + 1;
+					writeInts(coordinator, cells[xIndex][yIndex] ? 1 : 0);
+					break;
+				}
+				case RANDOMIZE:
+					randomize();
+					writeInts(coordinator, population);
+					break;
+				case STEP:
+					exchangeHalo();
+					calculateNextGeneration();
+					writeInts(coordinator, population);
+					break;
+				case GET_REGION:
+					sendRegion(readInt(coordinator), readInt(coordinator), readInt(coordinator), readInt(coordinator));
+					break;
+				case SHUTDOWN:
+					return;
+				default:
+					throw new IOException("Unexpected message code " + code + " from coordinator");
+				}
+			}
+		} finally {
+			for(SocketChannel channel : new SocketChannel[] { coordinator, north, south, east, west }) {
+				if(channel != null) channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads this worker's tile assignment, then connects to the east and south neighbors
+	 * and accepts connections from the west and north neighbors.
+	 */
+	private void connectToNeighbors(ServerSocketChannel peerServer) throws IOException {
+		expect(coordinator, ASSIGN);
+		int tileId = readInt(coordinator), tilesAcross = readInt(coordinator), tilesDown = readInt(coordinator);
+		tileWidth = readInt(coordinator);
+		tileHeight = readInt(coordinator);
+		int[] peerPorts = new int[tilesAcross * tilesDown];
+		for(int index = 0; index < peerPorts.length; index++) peerPorts[index] = readInt(coordinator);
+
+		cells = new boolean[tileWidth + 2][tileHeight + 2];
+		nextCells = new boolean[tileWidth + 2][tileHeight + 2];
+		haloBuffer = ByteBuffer.allocate(packedLength(Math.max(tileWidth, tileHeight) + 2));
+
+		int column = tileId % tilesAcross, row = tileId / tilesAcross;
+		if(column + 1 < tilesAcross) east = connectToPeer(peerPorts[tileId + 1], tileId);
+		if(row + 1 < tilesDown) south = connectToPeer(peerPorts[tileId + tilesAcross], tileId);
+
+		int expectedPeers = (column > 0 ? 1 : 0) + (row > 0 ? 1 : 0);
+		for(int accepted = 0; accepted < expectedPeers; accepted++) {
+			SocketChannel peer = peerServer.accept();
+			peer.socket().setTcpNoDelay(true);
+			int peerId = readInt(peer);
+			if(column > 0 && peerId == tileId - 1) {
+				west = peer;
+			} else if(row > 0 && peerId == tileId - tilesAcross) {
+				north = peer;
+			} else {
+				throw new IOException("Tile " + tileId + " received an unexpected connection from tile " + peerId);
+			}
+		}
+	}
+
+	private static SocketChannel connectToPeer(int port, int tileId) throws IOException {
+		SocketChannel peer = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		peer.socket().setTcpNoDelay(true);
+		writeInts(peer, tileId);
+		return peer;
+	}
+
+	private void exchangeHalo() throws IOException {
+		if(west != null) {
+			receiveCells(west, 0, 1, 0, 1, tileHeight);
+			sendCells(west, 1, 1, 0, 1, tileHeight);
+		}
+		if(east != null) {
+			sendCells(east, tileWidth, 1, 0, 1, tileHeight);
+			receiveCells(east, tileWidth + 1, 1, 0, 1, tileHeight);
+		}
+		if(north != null) {
+			receiveCells(north, 0, 0, 1, 0, tileWidth + 2);
+			sendCells(north, 0, 1, 1, 0, tileWidth + 2);
+		}
+		if(south != null) {
+			sendCells(south, 0, tileHeight, 1, 0, tileWidth + 2);
+			receiveCells(south, 0, tileHeight + 1, 1, 0, tileWidth + 2);
+		}
+	}
+
+	private void sendCells(SocketChannel channel, int xIndex, int yIndex, int xStep, int yStep, int count) throws IOException {
+		haloBuffer.clear();
+		pack(haloBuffer, xIndex, yIndex, xStep, yStep, count);
+		haloBuffer.flip();
+		writeFully(channel, haloBuffer);
+	}
+
+	private void receiveCells(SocketChannel channel, int xIndex, int yIndex, int xStep, int yStep, int count) throws IOException {
+		haloBuffer.clear().limit(packedLength(count));
+		readFully(channel, haloBuffer);
+		for(int index = 0; index < count; index++) {
+			cells[xIndex + index * xStep][yIndex + index * yStep] = (haloBuffer.get(index >> 3) & (1 << (index & 7))) != 0;
+		}
+	}
+
+	private void pack(ByteBuffer buffer, int xIndex, int yIndex, int xStep, int yStep, int count) {
+		int packed = 0;
+		for(int index = 0; index < count; index++) {
+			if(cells[xIndex + index * xStep][yIndex + index * yStep]) packed |= 1 << (index & 7);
+			if((index & 7) == 7 || index == count - 1) {
+				buffer.put((byte) packed);
+				packed = 0;
+			}
+		}
+	}
+
+	/**
+	 * Sends a rectangle of the tile's cells column by column.  Indexes are relative to the
+	 * tile, not counting the halo.
+	 */
+	private void sendRegion(int regionX, int regionY, int width, int height) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(packedLength(width * height));
+		int packed = 0, index = 0;
+		for(int xIndex = regionX + 1; xIndex <= regionX + width; xIndex++) {
+			for(int yIndex = regionY + 1; yIndex <= regionY + height; yIndex++, index++) {
+				if(cells[xIndex][yIndex]) packed |= 1 << (index & 7);
+				if((index & 7) == 7) {
+					buffer.put((byte) packed);
+					packed = 0;
+				}
+			}
+		}
+		if((index & 7) != 0) buffer.put((byte) packed);
+		buffer.flip();
+		writeFully(coordinator, buffer);
+	}
+
+	private void randomize() {
+		population = 0;
+		for(int xIndex = 1; xIndex <= tileWidth; xIndex++) {
+			for(int yIndex = 1; yIndex <= tileHeight; yIndex++) {
+				if(cells[xIndex][yIndex] = ThreadLocalRandom.current().nextBoolean()) population++;
+			}
+		}
+	}
+
+	private void calculateNextGeneration() {
+		int newPopulation = 0;
+		for(int xIndex = 1; xIndex <= tileWidth; xIndex++) {
+			boolean[] left = cells[xIndex - 1], middle = cells[xIndex], right = cells[xIndex + 1], next = nextCells[xIndex];
+			for(int yIndex = 1; yIndex <= tileHeight; yIndex++) {
+				int neighbors = 0;
+				if(left[yIndex - 1]) neighbors++;
+				if(left[yIndex]) neighbors++;
+				if(left[yIndex + 1]) neighbors++;
+				if(middle[yIndex - 1]) neighbors++;
+				if(middle[yIndex + 1]) neighbors++;
+				if(right[yIndex - 1]) neighbors++;
+				if(right[yIndex]) neighbors++;
+				if(right[yIndex + 1]) neighbors++;
+				next[yIndex] = neighbors == 3 || (neighbors == 2 && middle[yIndex]);
+				if(next[yIndex]) newPopulation++;
+			}
+		}
+		// The halo of nextCells is stale, but it is refilled by the next exchange before it is read
+		boolean[][] swap = cells;
+		cells = nextCells;
+		nextCells = swap;
+		population = newPopulation;
+	}
+}
\ No newline at end of file
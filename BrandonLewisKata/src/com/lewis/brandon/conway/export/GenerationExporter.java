@@ -0,0 +1,368 @@
+package com.lewis.brandon.conway.export;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.lewis.brandon.conway.BoardSnapshot;
+import com.lewis.brandon.conway.LifeEngine;
+
+/**
+ * Exports a range of generations of a board as PNG frames or an animated GIF without
+ * any UI.  The export runs as three pipelined stages connected by bounded queues:
+ * <ul>
+ * 	<li>Simulation, which steps the board and passes on a {@link BoardSnapshot} of each generation's viewport</li>
+ * 	<li>Rasterization, which draws the viewport straight from the snapshot's cells into a reusable indexed-color image</li>
+ * 	<li>Encoding, which writes the images; PNG frames are encoded by several threads at once, while
+ * 		an animated GIF is a single sequential stream and so has one encoding thread</li>
+ * </ul>
+ * Images are returned to the rasterization stage once they have been encoded, so only a
+ * handful of frames are ever held in memory regardless of how many are exported.  Since
+ * each frame is drawn from one snapshot, frames are never torn by edits made while the
+ * export runs.  Only the viewport is read from the board, so engines which copy their
+ * cells to take a snapshot copy no more than the viewport, and a small viewport of a
+ * board too large for one JVM can be exported.
+ *
+ * If any stage fails, the simulation stage is never interrupted, since an engine may be
+ * in the middle of I/O which an interrupt would break; it stops once the generation it is
+ * calculating is complete.  The export does not return until every stage has stopped, so
+ * the board is no longer being changed once the failure is reported.
+ */
+public class GenerationExporter {
+
+	/** The number of frames which may be waiting between any two stages */
+	static final int QUEUE_CAPACITY = 4;
+	/** How often the simulation stage checks whether the export has been cancelled while the next stage is behind */
+	private static final long CANCEL_CHECK_MILLIS = 50;
+	private static final byte DEAD_CELL_INDEX = 0, LIVING_CELL_INDEX = 1;
+	/** The same colors MainApp draws with (DIMGRAY and MEDIUMSEAGREEN) */
+	private static final IndexColorModel CELL_COLORS = new IndexColorModel(8, 2,
+			new byte[] { (byte) 105, (byte) 60 }, new byte[] { (byte) 105, (byte) 179 }, new byte[] { (byte) 105, (byte) 113 });
+
+	// Markers which tell the next stage that no more frames are coming
+	private static final SnapshotFrame END_OF_SNAPSHOTS = new SnapshotFrame(0, null);
+	private static final RasterFrame END_OF_FRAMES = new RasterFrame(null);
+
+	private final LifeEngine board;
+	private final Viewport viewport;
+	private final int encoderThreads;
+
+	/**
+	 * Creates an exporter which encodes PNG frames on as many threads as there are processors.
+	 *
+	 * @throws IllegalArgumentException	if the viewport does not fit inside the board
+	 */
+	public GenerationExporter(LifeEngine board, Viewport viewport) {
+		this(board, viewport, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param board				the board to export, which is advanced as generations are exported
+	 * @param viewport			the part of the board to draw
+	 * @param encoderThreads	the number of threads encoding PNG frames
+	 * @throws IllegalArgumentException	if the viewport does not fit inside the board or encoderThreads is less than 1
+	 */
+	public GenerationExporter(LifeEngine board, Viewport viewport, int encoderThreads) {
+		if(viewport.getXIndex() + viewport.getWidth() > board.getBoardWidth()
+				|| viewport.getYIndex() + viewport.getHeight() > board.getBoardHeight()) {
+			throw new IllegalArgumentException("A " + viewport.getWidth() + "x" + viewport.getHeight() + " viewport at "
+					+ viewport.getXIndex() + ", " + viewport.getYIndex() + " does not fit on a "
+					+ board.getBoardWidth() + "x" + board.getBoardHeight() + " board");
+		} else if(encoderThreads < 1) {
+			throw new IllegalArgumentException("An export needs at least 1 encoder thread (received " + encoderThreads + ")");
+		}
+		this.board = board;
+		this.viewport = viewport;
+		this.encoderThreads = encoderThreads;
+	}
+
+	/**
+	 * Writes one PNG per generation, named <code>generation-000042.png</code> and so on.  The
+	 * board's current state is generation 0; it is left at lastGeneration afterwards.
+	 *
+	 * @throws IllegalArgumentException	if the generation range is empty or negative
+	 * @throws IOException	if a frame could not be written
+	 */
+	public void exportPngSequence(Path directory, int firstGeneration, int lastGeneration) throws IOException {
+		checkGenerationRange(firstGeneration, lastGeneration);
+		Files.createDirectories(directory);
+		FrameEncoder pngEncoder = frame -> {
+			Path file = directory.resolve(String.format("generation-%06d.png", frame.generation));
+			if(!ImageIO.write(frame.image, "png", file.toFile())) throw new IOException("No PNG encoder is available");
+		};
+		runPipeline(firstGeneration, lastGeneration, Collections.nCopies(encoderThreads, pngEncoder));
+	}
+
+	/**
+	 * Writes every generation as one frame of a looping animated GIF.  The board's current
+	 * state is generation 0; it is left at lastGeneration afterwards.
+	 *
+	 * @param frameDelayMillis	how long each frame is shown, which GIF rounds down to hundredths of a second
+	 * @throws IllegalArgumentException	if the generation range is empty or negative, or the delay is negative
+	 * @throws IOException	if the file could not be written
+	 */
+	public void exportAnimatedGif(Path file, int firstGeneration, int lastGeneration, int frameDelayMillis) throws IOException {
+		checkGenerationRange(firstGeneration, lastGeneration);
+		if(frameDelayMillis < 0) {
+			throw new IllegalArgumentException("An animated GIF cannot have a negative frame delay (received " + frameDelayMillis + ")");
+		}
+		ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+		Files.deleteIfExists(file);	// The image output stream would otherwise leave the tail of a longer file behind
+		try(ImageOutputStream output = ImageIO.createImageOutputStream(file.toFile())) {
+			if(output == null) throw new IOException("Cannot write to " + file);
+			writer.setOutput(output);
+			writer.prepareWriteSequence(null);
+			FrameEncoder gifEncoder = frame -> writer.writeToSequence(new IIOImage(frame.image, null,
+					gifFrameMetadata(writer, frame.image, frameDelayMillis, frame.generation == firstGeneration)), null);
+			runPipeline(firstGeneration, lastGeneration, Collections.singletonList(gifEncoder));
+			writer.endWriteSequence();
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	private static void checkGenerationRange(int firstGeneration, int lastGeneration) {
+		if(firstGeneration < 0 || lastGeneration < firstGeneration) {
+			throw new IllegalArgumentException("Cannot export generations " + firstGeneration + " through " + lastGeneration
+					+ " (expected 0 <= firstGeneration <= lastGeneration)");
+		}
+	}
+
+	private void runPipeline(int firstGeneration, int lastGeneration, List<FrameEncoder> encoders) throws IOException {
+		BlockingQueue<SnapshotFrame> snapshotFrames = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+		BlockingQueue<RasterFrame> freeRasterFrames = new ArrayBlockingQueue<>(QUEUE_CAPACITY + encoders.size() + 1);
+		BlockingQueue<RasterFrame> rasterFrames = new ArrayBlockingQueue<>(QUEUE_CAPACITY + encoders.size());
+		// One image can be in use by each thread on top of those waiting in the queues
+		while(freeRasterFrames.remainingCapacity() > 0) {
+			freeRasterFrames.add(new RasterFrame(new BufferedImage(viewport.getPixelWidth(), viewport.getPixelHeight(),
+					BufferedImage.TYPE_BYTE_INDEXED, CELL_COLORS)));
+		}
+
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Callable<Void> simulation = () -> {
+			simulate(firstGeneration, lastGeneration, snapshotFrames, cancelled);
+			return null;
+		};
+		// Every other stage only ever blocks on the queues, so it is safe to interrupt
+		List<Callable<Void>> queueStages = new ArrayList<>();
+		queueStages.add(() -> {
+			rasterize(snapshotFrames, freeRasterFrames, rasterFrames, encoders.size());
+			return null;
+		});
+		for(FrameEncoder encoder : encoders) {
+			queueStages.add(() -> {
+				RasterFrame frame;
+				while((frame = rasterFrames.take()) != END_OF_FRAMES) {
+					encoder.encode(frame);
+					freeRasterFrames.put(frame);
+				}
+				return null;
+			});
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(queueStages.size() + 1);
+		List<Future<Void>> queueStageFutures = new ArrayList<>();
+		try {
+			CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+			completion.submit(simulation);
+			for(Callable<Void> stage : queueStages) queueStageFutures.add(completion.submit(stage));
+			// A failed stage completes first, so it is reported before the others are stopped
+			for(int finished = 0; finished <= queueStages.size(); finished++) completion.take().get();
+		} catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException) cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw new IOException("Export failed", cause);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Export was interrupted");
+		} finally {
+			cancelled.set(true);
+			for(Future<Void> stage : queueStageFutures) stage.cancel(true);
+			executor.shutdown();
+			awaitTermination(executor);
+		}
+	}
+
+	/**
+	 * Waits for every stage to stop, even if the calling thread is interrupted meanwhile.
+	 */
+	private static void awaitTermination(ExecutorService executor) {
+		boolean interrupted = false;
+		while(!executor.isTerminated()) {
+			try {
+				executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Checks for cancellation between generations and while waiting for room in the queue,
+	 * rather than relying on being interrupted.
+	 */
+	private void simulate(int firstGeneration, int lastGeneration, BlockingQueue<SnapshotFrame> snapshotFrames,
+			AtomicBoolean cancelled) throws InterruptedException {
+		for(int generation = 0; generation < firstGeneration; generation++) {
+			if(cancelled.get()) return;
+			board.calculateNextGeneration();
+		}
+		for(int generation = firstGeneration; generation <= lastGeneration; generation++) {
+			if(cancelled.get()) return;
+			if(generation > firstGeneration) board.calculateNextGeneration();
+			SnapshotFrame frame = new SnapshotFrame(generation,
+					board.getSnapshot(viewport.getXIndex(), viewport.getYIndex(), viewport.getWidth(), viewport.getHeight()));
+			if(!offerUnlessCancelled(snapshotFrames, frame, cancelled)) return;
+		}
+		offerUnlessCancelled(snapshotFrames, END_OF_SNAPSHOTS, cancelled);
+	}
+
+	/**
+	 * @return	true if the frame was queued, or false if the export was cancelled first
+	 */
+	private static boolean offerUnlessCancelled(BlockingQueue<SnapshotFrame> snapshotFrames, SnapshotFrame frame,
+			AtomicBoolean cancelled) throws InterruptedException {
+		while(!snapshotFrames.offer(frame, CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+			if(cancelled.get()) return false;
+		}
+		return true;
+	}
+
+	private void rasterize(BlockingQueue<SnapshotFrame> snapshotFrames, BlockingQueue<RasterFrame> freeRasterFrames,
+			BlockingQueue<RasterFrame> rasterFrames, int encoderCount) throws InterruptedException {
+		int width = viewport.getWidth(), height = viewport.getHeight();
+		int cellSize = viewport.getCellSize(), pixelWidth = viewport.getPixelWidth();
+		SnapshotFrame snapshotFrame;
+		while((snapshotFrame = snapshotFrames.take()) != END_OF_SNAPSHOTS) {
+			RasterFrame frame = freeRasterFrames.take();
+			frame.generation = snapshotFrame.generation;
+			for(int yIndex = 0; yIndex < height; yIndex++) {
+				// Draw the first pixel row of this row of cells, then copy it for the rest of the cell height
+				int rowStart = yIndex * cellSize * pixelWidth;
+				for(int xIndex = 0; xIndex < width; xIndex++) {
+					int cellStart = rowStart + xIndex * cellSize;
+					Arrays.fill(frame.pixels, cellStart, cellStart + cellSize,
+							snapshotFrame.snapshot.isCellAlive(xIndex, yIndex) ? LIVING_CELL_INDEX : DEAD_CELL_INDEX);
+				}
+				for(int pixelRow = 1; pixelRow < cellSize; pixelRow++) {
+					System.arraycopy(frame.pixels, rowStart, frame.pixels, rowStart + pixelRow * pixelWidth, pixelWidth);
+				}
+			}
+			rasterFrames.put(frame);
+		}
+		for(int encoder = 0; encoder < encoderCount; encoder++) rasterFrames.put(END_OF_FRAMES);
+	}
+
+	/**
+	 * @param loop	whether to add the extension which makes the animation repeat forever, which belongs on the first frame
+	 */
+	private static IIOMetadata gifFrameMetadata(ImageWriter writer, BufferedImage image, int delayMillis, boolean loop)
+			throws IIOInvalidTreeException {
+		IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+		String format = metadata.getNativeMetadataFormatName();
+		IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+		IIOMetadataNode graphicControl = childNode(root, "GraphicControlExtension");
+		graphicControl.setAttribute("disposalMethod", "none");
+		graphicControl.setAttribute("userInputFlag", "FALSE");
+		graphicControl.setAttribute("transparentColorFlag", "FALSE");
+		graphicControl.setAttribute("delayTime", String.valueOf(delayMillis / 10));
+		graphicControl.setAttribute("transparentColorIndex", "0");
+
+		// The default table is sized for 8 bit pixels rather than holding the image's own colors, so replace it
+		IndexColorModel colors = (IndexColorModel) image.getColorModel();
+		IIOMetadataNode colorTable = childNode(root, "LocalColorTable");
+		while(colorTable.hasChildNodes()) colorTable.removeChild(colorTable.getFirstChild());
+		colorTable.setAttribute("sizeOfLocalColorTable", String.valueOf(colors.getMapSize()));
+		colorTable.setAttribute("sortFlag", "FALSE");
+		for(int index = 0; index < colors.getMapSize(); index++) {
+			IIOMetadataNode entry = new IIOMetadataNode("ColorTableEntry");
+			entry.setAttribute("index", String.valueOf(index));
+			entry.setAttribute("red", String.valueOf(colors.getRed(index)));
+			entry.setAttribute("green", String.valueOf(colors.getGreen(index)));
+			entry.setAttribute("blue", String.valueOf(colors.getBlue(index)));
+			colorTable.appendChild(entry);
+		}
+
+		if(loop) {
+			IIOMetadataNode application = new IIOMetadataNode("ApplicationExtension");
+			application.setAttribute("applicationID", "NETSCAPE");
+			application.setAttribute("authenticationCode", "2.0");
+			application.setUserObject(new byte[] { 1, 0, 0 });	// Loop forever
+			childNode(root, "ApplicationExtensions").appendChild(application);
+		}
+		metadata.setFromTree(format, root);
+		return metadata;
+	}
+
+	private static IIOMetadataNode childNode(IIOMetadataNode parent, String name) {
+		for(int index = 0; index < parent.getLength(); index++) {
+			if(parent.item(index).getNodeName().equals(name)) return (IIOMetadataNode) parent.item(index);
+		}
+		IIOMetadataNode child = new IIOMetadataNode(name);
+		parent.appendChild(child);
+		return child;
+	}
+
+	private interface FrameEncoder {
+		void encode(RasterFrame frame) throws IOException;
+	}
+
+	/**
+	 * One generation of the viewport, numbered from the start of the export.
+	 */
+	private static final class SnapshotFrame {
+		final int generation;
+		final BoardSnapshot snapshot;
+
+		SnapshotFrame(int generation, BoardSnapshot snapshot) {
+			this.generation = generation;
+			this.snapshot = snapshot;
+		}
+	}
+
+	/**
+	 * One generation drawn as an image, along with the image's pixel array for drawing into directly.
+	 */
+	private static final class RasterFrame {
+		int generation;
+		final BufferedImage image;
+		final byte[] pixels;
+
+		RasterFrame(BufferedImage image) {
+			this.image = image;
+			pixels = image == null ? null : ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		}
+	}
+}
\ No newline at end of file
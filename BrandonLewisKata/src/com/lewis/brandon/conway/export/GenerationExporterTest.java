@@ -0,0 +1,192 @@
+package com.lewis.brandon.conway.export;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.lewis.brandon.conway.ConwaysGameOfLife;
+import com.lewis.brandon.conway.LifeEngine;
+import com.lewis.brandon.conway.SparseGameOfLife;
+import com.lewis.brandon.conway.distributed.DistributedGameOfLife;
+
+public class GenerationExporterTest {
+	LifeEngine gameOfLife;
+	private static final int BOARD_WIDTH = 8, BOARD_HEIGHT = 6, CELL_SIZE = 5;
+	private static final int LIVING_CELL_RGB = 0xFF3CB371, DEAD_CELL_RGB = 0xFF696969;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void beforeHook() {
+		// Vertical blinker on generation 0, horizontal on generation 1
+		gameOfLife = new ConwaysGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+		gameOfLife.toggleCell(2, 1);
+		gameOfLife.toggleCell(2, 2);
+		gameOfLife.toggleCell(2, 3);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testViewportOutsideBoardResultsInIllegalArgumentException() {
+		new GenerationExporter(gameOfLife, new Viewport(4, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeViewportIndexResultsInIllegalArgumentException() {
+		new Viewport(-1, 0, 2, 2, CELL_SIZE);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testBackwardsGenerationRangeResultsInIllegalArgumentException() throws IOException {
+		new GenerationExporter(gameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE))
+				.exportPngSequence(folder.getRoot().toPath(), 3, 2);
+	}
+
+	@Test
+	public void testPngSequenceHasOneFramePerGeneration() throws IOException {
+		Path directory = folder.getRoot().toPath().resolve("frames");
+		new GenerationExporter(gameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE), 3)
+				.exportPngSequence(directory, 2, 11);
+		assertEquals(10, directory.toFile().list().length);
+		assertTrue(directory.resolve("generation-000002.png").toFile().isFile());
+		assertTrue(directory.resolve("generation-000011.png").toFile().isFile());
+	}
+
+	@Test
+	public void testPngFramesMatchBoard() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		new GenerationExporter(gameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE))
+				.exportPngSequence(directory, 0, 1);
+		BufferedImage generationZero = ImageIO.read(directory.resolve("generation-000000.png").toFile());
+		BufferedImage generationOne = ImageIO.read(directory.resolve("generation-000001.png").toFile());
+
+		assertEquals(BOARD_WIDTH * CELL_SIZE, generationZero.getWidth());
+		assertEquals(BOARD_HEIGHT * CELL_SIZE, generationZero.getHeight());
+		assertEquals(LIVING_CELL_RGB, cellColor(generationZero, 2, 1));
+		assertEquals(DEAD_CELL_RGB, cellColor(generationZero, 1, 2));
+		assertEquals(DEAD_CELL_RGB, cellColor(generationOne, 2, 1));
+		assertEquals(LIVING_CELL_RGB, cellColor(generationOne, 1, 2));
+	}
+
+	@Test
+	public void testViewportOffsetIsApplied() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		new GenerationExporter(gameOfLife, new Viewport(2, 1, 3, 3, CELL_SIZE)).exportPngSequence(directory, 0, 0);
+		BufferedImage frame = ImageIO.read(directory.resolve("generation-000000.png").toFile());
+		assertEquals(3 * CELL_SIZE, frame.getWidth());
+		assertEquals(LIVING_CELL_RGB, cellColor(frame, 0, 0));
+		assertEquals(DEAD_CELL_RGB, cellColor(frame, 1, 0));
+	}
+
+	@Test
+	public void testEngineWhichCopiesItsSnapshotsIsExported() throws IOException {
+		LifeEngine sparseGameOfLife = new SparseGameOfLife(BOARD_WIDTH, BOARD_HEIGHT);
+		sparseGameOfLife.toggleCell(2, 1);
+		sparseGameOfLife.toggleCell(2, 2);
+		sparseGameOfLife.toggleCell(2, 3);
+		Path directory = folder.getRoot().toPath();
+		new GenerationExporter(sparseGameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE))
+				.exportPngSequence(directory, 0, 1);
+		BufferedImage generationOne = ImageIO.read(directory.resolve("generation-000001.png").toFile());
+		assertEquals(DEAD_CELL_RGB, cellColor(generationOne, 2, 1));
+		assertEquals(LIVING_CELL_RGB, cellColor(generationOne, 1, 2));
+	}
+
+	@Test
+	public void testDistributedBoardViewportIsExported() throws IOException {
+		// The viewport straddles the corner where all four tiles meet
+		try(DistributedGameOfLife distributedGameOfLife = new DistributedGameOfLife(BOARD_WIDTH * 2, BOARD_HEIGHT * 2, 2, 2)) {
+			distributedGameOfLife.toggleCell(BOARD_WIDTH - 1, BOARD_HEIGHT - 2);
+			distributedGameOfLife.toggleCell(BOARD_WIDTH - 1, BOARD_HEIGHT - 1);
+			distributedGameOfLife.toggleCell(BOARD_WIDTH - 1, BOARD_HEIGHT);
+			Path directory = folder.getRoot().toPath();
+			new GenerationExporter(distributedGameOfLife, new Viewport(BOARD_WIDTH - 2, BOARD_HEIGHT - 2, 3, 3, CELL_SIZE))
+					.exportPngSequence(directory, 0, 1);
+			BufferedImage generationZero = ImageIO.read(directory.resolve("generation-000000.png").toFile());
+			BufferedImage generationOne = ImageIO.read(directory.resolve("generation-000001.png").toFile());
+			assertEquals(3 * CELL_SIZE, generationZero.getWidth());
+			assertEquals(LIVING_CELL_RGB, cellColor(generationZero, 1, 0));
+			assertEquals(LIVING_CELL_RGB, cellColor(generationZero, 1, 2));
+			assertEquals(DEAD_CELL_RGB, cellColor(generationZero, 0, 1));
+			assertEquals(DEAD_CELL_RGB, cellColor(generationOne, 1, 0));
+			assertEquals(LIVING_CELL_RGB, cellColor(generationOne, 0, 1));
+			assertEquals(LIVING_CELL_RGB, cellColor(generationOne, 2, 1));
+		}
+	}
+
+	@Test
+	public void testExportLeavesBoardAtLastGeneration() throws IOException {
+		new GenerationExporter(gameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE))
+				.exportPngSequence(folder.getRoot().toPath(), 0, 3);
+		assertTrue(gameOfLife.isCellAlive(1, 2));
+		assertFalse(gameOfLife.isCellAlive(2, 1));
+	}
+
+	@Test
+	public void testFailedExportStopsSimulationWithoutInterruptingIt() throws IOException, InterruptedException {
+		AtomicInteger generations = new AtomicInteger();
+		AtomicBoolean interrupted = new AtomicBoolean();
+		LifeEngine slowGameOfLife = new ConwaysGameOfLife(BOARD_WIDTH, BOARD_HEIGHT) {
+			@Override
+			public void calculateNextGeneration() {
+				try {
+					Thread.sleep(5);
+				} catch(InterruptedException e) {
+					interrupted.set(true);
+				}
+				super.calculateNextGeneration();
+				generations.incrementAndGet();
+			}
+		};
+		// A non-empty directory where the second frame should go cannot be replaced by the frame
+		Path directory = folder.getRoot().toPath();
+		directory.resolve("generation-000001.png").toFile().mkdir();
+		folder.newFile("generation-000001.png/blocker");
+		try {
+			new GenerationExporter(slowGameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE), 1)
+					.exportPngSequence(directory, 0, 10000);
+			fail("Expected the export to fail");
+		} catch(IOException e) {
+			// Expected
+		}
+		int generationsWhenFailed = generations.get();
+		Thread.sleep(50);
+		assertEquals(generationsWhenFailed, generations.get());
+		assertFalse(interrupted.get());
+	}
+
+	@Test
+	public void testAnimatedGifHasOneFramePerGeneration() throws IOException {
+		File file = folder.newFile("blinker.gif");
+		new GenerationExporter(gameOfLife, new Viewport(0, 0, BOARD_WIDTH, BOARD_HEIGHT, CELL_SIZE))
+				.exportAnimatedGif(file.toPath(), 0, 24, 100);
+
+		ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+		try(ImageInputStream input = ImageIO.createImageInputStream(file)) {
+			reader.setInput(input);
+			assertEquals(25, reader.getNumImages(true));
+			assertEquals(LIVING_CELL_RGB, cellColor(reader.read(0), 2, 1));
+			assertEquals(LIVING_CELL_RGB, cellColor(reader.read(1), 1, 2));
+		} finally {
+			reader.dispose();
+		}
+	}
+
+	private static int cellColor(BufferedImage image, int xIndex, int yIndex) {
+		return image.getRGB(xIndex * CELL_SIZE + CELL_SIZE / 2, yIndex * CELL_SIZE + CELL_SIZE / 2);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.lewis.brandon.conway.export;
+
+/**
+ * The rectangle of a board which is exported, and how many pixels wide and tall each
+ * cell is drawn.
+ */
+public final class Viewport {
+
+	private final int xIndex, yIndex, width, height, cellSize;
+
+	/**
+	 * @param xIndex	index of the first column shown, where 0 represents the first cell
+	 * @param yIndex	index of the first row shown, where 0 represents the first cell
+	 * @param width		the number of cells shown across
+	 * @param height	the number of cells shown down
+	 * @param cellSize	the width and height of each cell in pixels
+	 * @throws IllegalArgumentException	if any index is negative or any size is less than 1
+	 */
+	public Viewport(int xIndex, int yIndex, int width, int height, int cellSize) {
+		if(xIndex < 0 || yIndex < 0) {
+			throw new IllegalArgumentException("A viewport cannot start at a negative cell index (received " + xIndex + ", " + yIndex + ")");
+		} else if(width < 1 || height < 1) {
+			throw new IllegalArgumentException("A viewport must be at least 1 cell wide and 1 cell tall (received " + width + "x" + height + ")");
+		} else if(cellSize < 1) {
+			throw new IllegalArgumentException("A viewport must draw cells at least 1 pixel wide (received " + cellSize + ")");
+		} else if((long) width * cellSize * height * cellSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("A " + width + "x" + height + " viewport with " + cellSize + " pixel cells is too large to draw");
+		}
+		this.xIndex = xIndex;
+		this.yIndex = yIndex;
+		this.width = width;
+		this.height = height;
+		this.cellSize = cellSize;
+	}
+
+	public int getXIndex() { return xIndex; }
+
+	public int getYIndex() { return yIndex; }
+
+	public int getWidth() { return width; }
+
+	public int getHeight() { return height; }
+
+	public int getCellSize() { return cellSize; }
+
+	/**
+	 * @return	the width of each exported frame in pixels
+	 */
+	public int getPixelWidth() { return width * cellSize; }
+
+	/**
+	 * @return	the height of each exported frame in pixels
+	 */
+	public int getPixelHeight() { return height * cellSize; }
+}
\ No newline at end of file